@@ -0,0 +1,59 @@
+package com.rental.configuration;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Exécuteur des traitements qui suivent une opération asynchrone (création d'une location une fois
+ * son image envoyée) : ils ne s'exécutent ni sur les threads de Tomcat, ni sur ceux du client S3,
+ * qui ne doivent pas être bloqués par un accès à la base.
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Crée l'exécuteur des suites asynchrones des locations, à file bornée : une fois saturé, les
+     * nouvelles tâches sont refusées plutôt que d'accumuler les requêtes en mémoire.
+     *
+     * @param threads       Nombre de threads.
+     * @param queueCapacity Nombre maximal de tâches en attente.
+     * @param meterRegistry Registre des métriques, pour le temps d'attente des tâches.
+     * @return ThreadPoolTaskExecutor configuré
+     */
+    @Bean
+    public ThreadPoolTaskExecutor rentalTaskExecutor(@Value("${rentals.async.threads:8}") int threads,
+                                                     @Value("${rentals.async.queue-capacity:500}") int queueCapacity,
+                                                     MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("rental-async-");
+        executor.setTaskDecorator(queueWaitRecorder(meterRegistry));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Mesure l'attente de chaque tâche entre sa soumission et son exécution : signe de saturation du pool
+    private static TaskDecorator queueWaitRecorder(MeterRegistry meterRegistry) {
+        Timer queueWait = Timer.builder("rentals.async.queue.wait")
+                .description("Attente d'une tâche asynchrone des locations avant son exécution")
+                .register(meterRegistry);
+        return task -> {
+            long submitted = System.nanoTime();
+            return () -> {
+                queueWait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                task.run();
+            };
+        };
+    }
+}
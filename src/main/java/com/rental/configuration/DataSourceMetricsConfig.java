@@ -0,0 +1,60 @@
+package com.rental.configuration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.rental.util.ConnectionHoldTimingDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Mesure de la durée de détention des connexions JDBC, par endpoint.
+ * Le timer "db.connection.hold" (tag origin, par exemple "POST /api/rentals") permet de vérifier
+ * qu'aucun endpoint ne garde une connexion pendant un appel distant ; "background" désigne les
+ * connexions empruntées hors requête (tâches asynchrones, chargements au démarrage).
+ */
+@Configuration
+public class DataSourceMetricsConfig {
+
+    /**
+     * Enveloppe la source de données de l'application pour mesurer la détention des connexions.
+     * Déclaré statique : un BeanPostProcessor doit être créé avant les autres beans.
+     *
+     * @param meterRegistry Registre des métriques, résolu à la création de la source de données.
+     * @return Le post-processeur.
+     */
+    @Bean
+    public static BeanPostProcessor connectionHoldTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ConnectionHoldTimingDataSource)) {
+                    return new ConnectionHoldTimingDataSource((DataSource) bean, meterRegistry.getObject(),
+                            DataSourceMetricsConfig::currentOrigin);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Méthode HTTP et motif de l'endpoint (jamais l'URI brute, pour borner le nombre de séries)
+    private static String currentOrigin() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return "background";
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // Connexion empruntée par un filtre, avant la sélection du contrôleur
+        return request.getMethod() + " " + (pattern != null ? pattern : "filter");
+    }
+}
@@ -0,0 +1,24 @@
+package com.rental.configuration;
+
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Réponse 401 des routes protégées, pour une requête sans token ou dont le token a été rejeté
+ * (invalide, expiré, de rafraîchissement ou révoqué) : le client rafraîchit alors son token d'accès.
+ */
+@Component
+public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
+
+    @Override
+    public void commence(HttpServletRequest request, HttpServletResponse response,
+                         AuthenticationException authException) throws IOException {
+        response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Échec d'authentification.");
+    }
+}
@@ -1,14 +1,21 @@
 package com.rental.configuration;
 
 import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.rental.security.AuthenticatedUser;
+import com.rental.security.CompactJws;
+import com.rental.security.TokenEpochRegistry;
+import com.rental.security.TokenType;
 import com.rental.security.UserDetailsLoader;
+import com.rental.security.VerifiedToken;
 import com.rental.service.JwtService;
+import com.rental.util.PathPrefixMatcher;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -17,16 +24,45 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    // Routes publiques (connexion, inscription, rafraîchissement, Swagger), exclues du filtre : un token
+    // d'accès expiré ou révoqué ne doit pas empêcher le client d'en obtenir un nouveau. Préfixes indexés une seule fois
+    private static final PathPrefixMatcher PUBLIC_ENDPOINTS = new PathPrefixMatcher(
+            "/api/auth/login",
+            "/api/auth/register",
+            "/api/auth/refresh",
+            "/public/",
+            "/swagger-ui",
+            "/v3/api-docs",
+            "/swagger-resources",
+            "/webjars/",
+            "/configuration/ui",
+            "/configuration/security");
+
     private final JwtService jwtService;
     private final UserDetailsLoader userDetailsLoader;
+    private final TokenEpochRegistry tokenEpochRegistry;
+    private final AuthenticationEntryPoint authenticationEntryPoint;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsLoader userDetailsLoader) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsLoader userDetailsLoader,
+                                   TokenEpochRegistry tokenEpochRegistry,
+                                   AuthenticationEntryPoint authenticationEntryPoint) {
         this.jwtService = Objects.requireNonNull(jwtService, "JwtService ne peut pas être null");
         this.userDetailsLoader = Objects.requireNonNull(userDetailsLoader, "UserDetailsLoader ne peut pas être null");
+        this.tokenEpochRegistry = Objects.requireNonNull(tokenEpochRegistry, "TokenEpochRegistry ne peut pas être null");
+        this.authenticationEntryPoint = Objects.requireNonNull(authenticationEntryPoint,
+                "AuthenticationEntryPoint ne peut pas être null");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return PUBLIC_ENDPOINTS.matches(request.getRequestURI());
     }
 
     @Override
@@ -34,78 +70,61 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
-        String requestURI = request.getRequestURI();
-
-        // Exclure toutes les routes nécessaires pour Swagger
-        if (isSwaggerEndpoint(requestURI)) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
         final String authHeader = request.getHeader("Authorization");
 
         // Vérifier la présence de l'en-tête Authorization et son format
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        // Extraire le JWT de l'en-tête
-        final String jwt = authHeader.substring(7).trim();
+        // Délimiter le JWT dans l'en-tête (espaces ignorés) sans copie intermédiaire
+        int start = CompactJws.skipLeadingWhitespace(authHeader, BEARER_PREFIX.length(), authHeader.length());
+        int end = CompactJws.skipTrailingWhitespace(authHeader, start, authHeader.length());
 
-        // Vérification de l'encodage du JWT en Base64URL avant toute opération
-        if (!isBase64UrlEncoded(jwt)) {
+        // Vérification de la forme compacte du JWT (Base64URL) en une passe, avant toute opération
+        if (!CompactJws.isWellFormed(authHeader, start, end)) {
             response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Encodage JWT invalide.");
             return;
         }
 
-        final String userEmail;
-        try {
-            // Extraire le nom d'utilisateur du JWT
-            userEmail = jwtService.extractUsername(jwt);
-        } catch (Exception e) {
-            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Token JWT invalide.");
+        // Extraire le JWT de l'en-tête
+        final String jwt = authHeader.substring(start, end);
+
+        // Vérifier le JWT (signature et expiration) en une seule analyse
+        Optional<VerifiedToken> verifiedToken = jwtService.verifyToken(jwt);
+
+        // Rejeter les tokens invalides (signature, expiration) et les tokens de rafraîchissement : le 401
+        // indique au client de rafraîchir son token d'accès
+        if (verifiedToken.isEmpty() || verifiedToken.get().getSubject() == null
+                || verifiedToken.get().getType() != TokenType.ACCESS) {
+            authenticationEntryPoint.commence(request, response, new BadCredentialsException("Token invalide."));
             return;
         }
 
         // Vérifier si l'utilisateur est déjà authentifié
-        if (userEmail == null || SecurityContextHolder.getContext().getAuthentication() != null) {
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        // Vérification de la validité du JWT
-        if (!jwtService.validateToken(jwt, userEmail)) {
-            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Échec d'authentification.");
+        // Construire le principal directement depuis les claims, sans accès à la base de données.
+        // Les tokens émis avant l'ajout des claims d'identité passent encore par le chargement utilisateur.
+        AuthenticatedUser principal = verifiedToken.get().hasIdentityClaims()
+                ? AuthenticatedUser.fromToken(verifiedToken.get())
+                : userDetailsLoader.loadAuthenticatedUser(verifiedToken.get().getSubject());
+
+        // Rejeter les tokens émis avant une révocation (déconnexion globale, changement de mot de passe)
+        if (!tokenEpochRegistry.isCurrent(principal.getId(), verifiedToken.get().getEpoch())) {
+            authenticationEntryPoint.commence(request, response, new BadCredentialsException("Token révoqué."));
             return;
         }
 
-        // Charger les détails de l'utilisateur et définir l'authentification dans le contexte de sécurité
-        UserDetails userDetails = userDetailsLoader.loadUserByUsername(userEmail);
-        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null,
-                userDetails.getAuthorities());
+        // Définir l'authentification dans le contexte de sécurité
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(principal, null,
+                principal.getAuthorities());
         SecurityContextHolder.getContext().setAuthentication(authToken);
 
         filterChain.doFilter(request, response);
     }
-
-    /**
-     * Vérifie si l'URI correspond à un endpoint Swagger à exclure.
-     */
-    private boolean isSwaggerEndpoint(String requestURI) {
-        return requestURI.startsWith("/swagger-ui") ||
-                requestURI.startsWith("/v3/api-docs") ||
-                requestURI.startsWith("/swagger-resources") ||
-                requestURI.startsWith("/webjars/") ||
-                requestURI.startsWith("/configuration/ui") ||
-                requestURI.startsWith("/configuration/security");
-    }
-
-    /**
-     * Vérifie si un JWT suit le format Base64URL (sans padding).
-     * Un JWT doit contenir exactement trois parties séparées par des points.
-     */
-    private boolean isBase64UrlEncoded(String jwt) {
-        return jwt.matches("^[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+$");
-    }
 }
\ No newline at end of file
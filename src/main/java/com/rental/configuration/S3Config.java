@@ -6,6 +6,7 @@ import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 
 @Configuration
@@ -46,6 +47,27 @@ public class S3Config {
                 .build();
     }
 
+    /**
+     * Crée le client S3 asynchrone (entrées/sorties non bloquantes), configuré comme {@link #s3Client()}.
+     * Utilisé pour l'envoi des images : le thread de la requête n'attend pas la réponse de S3.
+     *
+     * @return S3AsyncClient configuré
+     */
+    @Bean
+    public S3AsyncClient s3AsyncClient() {
+        if (accessKeyId == null || accessKeyId.isBlank() || secretAccessKey == null || secretAccessKey.isBlank()) {
+            // Utilisation du profil par défaut si les credentials ne sont pas définis
+            return S3AsyncClient.builder()
+                    .region(Region.of(region))
+                    .build();
+        }
+
+        return S3AsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId, secretAccessKey)))
+                .build();
+    }
+
     /**
      * Retourne le nom du bucket S3 configuré.
      *
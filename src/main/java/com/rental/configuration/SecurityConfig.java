@@ -1,5 +1,6 @@
 package com.rental.configuration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,6 +14,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 
 import com.rental.security.UserDetailsLoader;
 import com.rental.service.JwtService;
@@ -22,13 +24,20 @@ import com.rental.service.JwtService;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final UserDetailsLoader userDetailsLoader;
     private final JwtService jwtService;
 
+    // Facteur de coût BCrypt (10 par défaut), à ajuster selon le budget de latence
+    @Value("${auth.hashing.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
+                          JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
                           UserDetailsLoader userDetailsLoader,
                           JwtService jwtService) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
         this.userDetailsLoader = userDetailsLoader;
         this.jwtService = jwtService;
     }
@@ -38,10 +47,13 @@ public class SecurityConfig {
         // Désactivation de la protection CSRF car nous utilisons des tokens JWT
         http.csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Redispatch asynchrone (fin d'un flux SSE) : la requête initiale a déjà été autorisée
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Liste des routes accessibles sans authentification
                         .requestMatchers(
                                 "/api/auth/login",
                                 "/api/auth/register",
+                                "/api/auth/refresh",
                                 "/public/**",
                                 "/swagger-ui.html", 
                                 "/swagger-ui/**",
@@ -51,6 +63,8 @@ public class SecurityConfig {
                                 "/configuration/ui",
                                 "/configuration/security"
                         ).permitAll()
+                        // Administration réservée aux administrateurs
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         // Tout le reste doit être authentifié
                         .anyRequest().authenticated()
                 )
@@ -58,6 +72,8 @@ public class SecurityConfig {
                 .authenticationProvider(authenticationProvider())
                 // Ajout du filtre JWT avant le filtre d'authentification par nom d'utilisateur et mot de passe
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Réponse 401 sur les routes protégées, sans token ou avec un token rejeté
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(jwtAuthenticationEntryPoint))
                 // Gestion de session sans état
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
 
@@ -67,7 +83,7 @@ public class SecurityConfig {
     @Bean
     public PasswordEncoder passwordEncoder() {
         // Utilisation de BCryptPasswordEncoder pour encoder les mots de passe
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
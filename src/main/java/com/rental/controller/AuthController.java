@@ -1,22 +1,27 @@
 package com.rental.controller;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import com.rental.dto.AuthLoginDTO;
 import com.rental.dto.AuthRegisterDTO;
 import com.rental.dto.AuthResponseDTO;
+import com.rental.dto.ChangePasswordDTO;
+import com.rental.dto.RefreshTokenDTO;
 import com.rental.dto.UserDTO;
+import com.rental.security.LoginThrottle;
+import com.rental.security.LoginThrottledException;
 import com.rental.service.AuthService;
+import com.rental.service.PasswordHashingRejectedException;
 import com.rental.service.UserService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 /**
@@ -29,10 +34,12 @@ public class AuthController {
 
     private final AuthService authService;
     private final UserService userService;
+    private final LoginThrottle loginThrottle;
 
-    public AuthController(AuthService authService, UserService userService) {
+    public AuthController(AuthService authService, UserService userService, LoginThrottle loginThrottle) {
         this.authService = authService;
         this.userService = userService;
+        this.loginThrottle = loginThrottle;
     }
 
     /**
@@ -44,7 +51,8 @@ public class AuthController {
     @Operation(summary = "Enregistrer un nouvel utilisateur")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Utilisateur inscrit avec succès"),
-            @ApiResponse(responseCode = "400", description = "Données d'inscription invalides")
+            @ApiResponse(responseCode = "400", description = "Données d'inscription invalides"),
+            @ApiResponse(responseCode = "503", description = "Service d'authentification saturé")
     })
     @PostMapping("/register")
     public ResponseEntity<AuthResponseDTO> register(@Valid @RequestBody AuthRegisterDTO registerDTO) {
@@ -56,23 +64,95 @@ public class AuthController {
      * Connexion d'un utilisateur.
      * 
      * @param loginDTO les informations de connexion de l'utilisateur
+     * @param request  la requête HTTP (adresse IP du client)
      * @return la réponse d'authentification
      */
     @Operation(summary = "Connexion d'un utilisateur")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Connexion réussie"),
-            @ApiResponse(responseCode = "401", description = "Échec de l'authentification")
+            @ApiResponse(responseCode = "401", description = "Échec de l'authentification"),
+            @ApiResponse(responseCode = "429", description = "Trop de tentatives de connexion"),
+            @ApiResponse(responseCode = "503", description = "Service d'authentification saturé")
     })
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody AuthLoginDTO loginDTO) {
+    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody AuthLoginDTO loginDTO,
+                                                 HttpServletRequest request) {
+        // Limitation vérifiée avant toute recherche d'utilisateur ou comparaison BCrypt. Derrière un proxy de
+        // confiance (server.tomcat.remoteip.internal-proxies), getRemoteAddr() est l'adresse du client
+        // tirée de X-Forwarded-For ; un client direct ne peut pas la falsifier
+        loginThrottle.acquire(request.getRemoteAddr(), loginDTO.getEmail());
         try {
             AuthResponseDTO response = authService.login(loginDTO);
+            loginThrottle.reset(loginDTO.getEmail());
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingRejectedException e) {
+            // La saturation n'est pas un échec d'authentification : traitée par le handler 503
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(401).body(new AuthResponseDTO("Échec de l'authentification"));
         }
     }
 
+    /**
+     * Échange un token de rafraîchissement contre une nouvelle paire de tokens.
+     *
+     * @param refreshTokenDTO le token de rafraîchissement
+     * @return la nouvelle paire de tokens
+     */
+    @Operation(summary = "Rafraîchir les tokens")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tokens renouvelés"),
+            @ApiResponse(responseCode = "401", description = "Token de rafraîchissement invalide, révoqué ou déjà utilisé")
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponseDTO> refresh(@Valid @RequestBody RefreshTokenDTO refreshTokenDTO) {
+        try {
+            AuthResponseDTO response = authService.refresh(refreshTokenDTO.getRefreshToken());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(401).body(new AuthResponseDTO("Échec du rafraîchissement"));
+        }
+    }
+
+    /**
+     * Révoque tous les tokens de l'utilisateur connecté, sur tous ses appareils.
+     *
+     * @return une réponse vide
+     */
+    @Operation(summary = "Déconnecter toutes les sessions de l'utilisateur")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Tous les tokens ont été révoqués"),
+            @ApiResponse(responseCode = "401", description = "Non autorisé")
+    })
+    @PostMapping("/logout-all")
+    public ResponseEntity<Void> logoutAll() {
+        authService.logoutAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Change le mot de passe de l'utilisateur connecté et révoque ses tokens existants.
+     *
+     * @param changePasswordDTO le mot de passe actuel et le nouveau mot de passe
+     * @return une nouvelle paire de tokens pour la session courante
+     */
+    @Operation(summary = "Changer le mot de passe de l'utilisateur connecté")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Mot de passe changé, nouveaux tokens émis"),
+            @ApiResponse(responseCode = "400", description = "Mot de passe actuel incorrect"),
+            @ApiResponse(responseCode = "401", description = "Non autorisé"),
+            @ApiResponse(responseCode = "503", description = "Service d'authentification saturé")
+    })
+    @PutMapping("/password")
+    public ResponseEntity<AuthResponseDTO> changePassword(@Valid @RequestBody ChangePasswordDTO changePasswordDTO) {
+        try {
+            AuthResponseDTO response = authService.changePassword(changePasswordDTO);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new AuthResponseDTO(e.getMessage()));
+        }
+    }
+
     /**
      * Récupère les informations de l'utilisateur actuellement authentifié.
      * 
@@ -85,10 +165,36 @@ public class AuthController {
     })
     @GetMapping("/me")
     public ResponseEntity<UserDTO> getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
-        UserDTO userDTO = userService.getUserByEmail(email);
+        // L'ID est lu depuis le principal du JWT ; seul le profil est chargé (par clé primaire)
+        Long userId = userService.getAuthenticatedUserId();
+        UserDTO userDTO = userService.getUserById(userId);
         return ResponseEntity.ok(userDTO);
     }
 
+    /**
+     * Réponse rapide lorsque le pool de hachage des mots de passe est saturé.
+     *
+     * @param e l'exception de saturation
+     * @return une réponse 503 avec l'en-tête Retry-After
+     */
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<AuthResponseDTO> handleHashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new AuthResponseDTO(e.getMessage()));
+    }
+
+    /**
+     * Réponse lorsque la limite de tentatives de connexion est atteinte.
+     *
+     * @param e l'exception de limitation
+     * @return une réponse 429 avec l'en-tête Retry-After
+     */
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<AuthResponseDTO> handleLoginThrottled(LoginThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new AuthResponseDTO(e.getMessage()));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.rental.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.rental.dto.JwtKeysDTO;
+import com.rental.security.JwtKeyRing;
+import com.rental.service.JwtService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * Contrôleur d'administration du trousseau des clés de signature JWT.
+ * La rotation se fait sans redémarrage : publier la nouvelle clé, recharger, puis désigner
+ * la clé active et recharger de nouveau.
+ */
+@Tag(name = "Administration JWT", description = "Rotation des clés de signature des JWT")
+@RestController
+@RequestMapping("/api/admin/jwt/keys")
+public class JwtKeyController {
+
+    private final JwtService jwtService;
+    private final JwtKeyRing jwtKeyRing;
+
+    public JwtKeyController(JwtService jwtService, JwtKeyRing jwtKeyRing) {
+        this.jwtService = jwtService;
+        this.jwtKeyRing = jwtKeyRing;
+    }
+
+    /**
+     * Décrit le trousseau courant.
+     *
+     * @return la clé active et les clés de vérification
+     */
+    @Operation(summary = "Décrire le trousseau des clés JWT")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Trousseau récupéré"),
+            @ApiResponse(responseCode = "403", description = "Réservé aux administrateurs")
+    })
+    @GetMapping
+    public ResponseEntity<JwtKeysDTO> getKeys() {
+        return ResponseEntity.ok(toDTO(jwtKeyRing.getKeySet()));
+    }
+
+    /**
+     * Recharge le trousseau depuis le répertoire des clés.
+     *
+     * @return le trousseau rechargé
+     */
+    @Operation(summary = "Recharger le trousseau des clés JWT")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Trousseau rechargé"),
+            @ApiResponse(responseCode = "403", description = "Réservé aux administrateurs"),
+            @ApiResponse(responseCode = "500", description = "Clés illisibles : le trousseau courant est conservé")
+    })
+    @PostMapping("/reload")
+    public ResponseEntity<JwtKeysDTO> reloadKeys() {
+        try {
+            return ResponseEntity.ok(toDTO(jwtService.reloadKeys()));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+
+    private static JwtKeysDTO toDTO(JwtKeyRing.KeySet keySet) {
+        return new JwtKeysDTO(keySet.getActiveKid(), keySet.getKids());
+    }
+}
@@ -1,11 +1,15 @@
 package com.rental.controller;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
@@ -13,21 +17,36 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.rental.dto.CreateRentalDTO;
+import com.rental.dto.RentalChanges;
+import com.rental.dto.RentalCollectionVersion;
 import com.rental.dto.RentalDTO;
+import com.rental.dto.RentalPage;
 import com.rental.dto.SnackbarNotif;
 import com.rental.dto.UpdateRentalDTO;
 import com.rental.service.AuthService;
+import com.rental.service.RentalChangeHub;
+import com.rental.service.RentalExportFormat;
+import com.rental.service.RentalFilter;
+import com.rental.service.RentalPageSnapshot;
 import com.rental.service.RentalService;
+import com.rental.service.RentalSort;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * Contrôleur REST pour gérer les locations (Rentals).
@@ -41,43 +60,189 @@ public class RentalController {
 
     private final RentalService rentalService;
     private final AuthService authService;
+    private final RentalChangeHub rentalChangeHub;
 
-    public RentalController(RentalService rentalService, AuthService authService) {
+    public RentalController(RentalService rentalService, AuthService authService, RentalChangeHub rentalChangeHub) {
         this.rentalService = rentalService;
         this.authService = authService;
+        this.rentalChangeHub = rentalChangeHub;
     }
 
     /**
-     * Endpoint pour récupérer toutes les locations.
+     * Endpoint pour récupérer les locations, page par page.
+     * Sans paramètre, retourne la première page avec la clé "rentals" attendue par les clients existants.
+     * Les bornes de prix et de surface sont incluses ; le curseur n'est valable que pour le même tri.
+     * La page est écrite telle qu'elle a été sérialisée en cache, compressée en gzip si le client l'accepte.
      *
-     * @return Liste des locations sous forme de DTO.
+     * @param limit      Nombre de locations par page (plafonné).
+     * @param cursor     Curseur opaque retourné dans "next_cursor" par la page précédente.
+     * @param minPrice   Prix minimal.
+     * @param maxPrice   Prix maximal.
+     * @param minSurface Surface minimale.
+     * @param maxSurface Surface maximale.
+     * @param sort       Tri : "price", "-price", "surface", "-surface" (par défaut, date de création).
+     * @param webRequest Requête courante, pour les en-têtes conditionnels (If-None-Match, If-Modified-Since).
+     * @param response   Réponse HTTP, qui varie selon Accept-Encoding.
+     * @return Page de locations et curseur de la page suivante (JSON), ou 304 si la collection n'a pas changé.
      */
-    @Operation(summary = "Récupérer toutes les locations")
-    @ApiResponse(responseCode = "200", description = "Liste des locations récupérée avec succès.")
+    @Operation(summary = "Récupérer les locations (pagination par curseur)")
+    @ApiResponse(responseCode = "200", description = "Page de locations récupérée avec succès.",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = RentalPage.class)))
+    @ApiResponse(responseCode = "304", description = "Collection inchangée depuis la version détenue par le client.")
+    @ApiResponse(responseCode = "400", description = "Curseur, tri ou taille de page invalide.")
     @ApiResponse(responseCode = "401", description = "Non autorisé.")
+    @ApiResponse(responseCode = "503", description = "Filtrage en cours de chargement au démarrage.")
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllRentals() {
-        // Récupération des locations en tant que liste de DTO
-        List<RentalDTO> rentals = rentalService.getAllRentals();
+    public ResponseEntity<byte[]> getAllRentals(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "minPrice", required = false) Double minPrice,
+            @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+            @RequestParam(value = "minSurface", required = false) Integer minSurface,
+            @RequestParam(value = "maxSurface", required = false) Integer maxSurface,
+            @RequestParam(value = "sort", required = false) String sort,
+            WebRequest webRequest,
+            HttpServletResponse response) {
+        RentalFilter filter;
+        try {
+            filter = new RentalFilter(minPrice, maxPrice, minSurface, maxSurface, RentalSort.fromParameter(sort));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        // L'encodage fait partie de la représentation : il entre dans l'ETag, y compris pour un 304
+        boolean gzip = acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        // Décidé avant tout chargement : la version est relue avant la page, qui n'est donc jamais plus ancienne
+        // En cas de 200, checkNotModified ajoute aussi les en-têtes ETag et Last-Modified à la réponse
+        RentalCollectionVersion version = rentalService.getRentalCollectionVersion();
+        if (isOpaqueCursor(cursor) && webRequest.checkNotModified(pageETag(version, limit, cursor, filter, gzip),
+                toMillis(version.getLastModified()))) {
+            return null;
+        }
+        RentalPageSnapshot page;
+        try {
+            page = rentalService.getRentalPage(cursor, limit, filter);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (gzip && page.getGzip() != null) {
+            return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.getGzip());
+        }
+        return ok.body(page.getJson());
+    }
+
+    /**
+     * Endpoint de recherche plein texte des locations (nom et description).
+     *
+     * @param query Texte recherché ; accents et casse sont ignorés.
+     * @param limit Nombre maximal de résultats (plafonné).
+     * @return Locations trouvées, de la plus pertinente à la moins pertinente.
+     */
+    @Operation(summary = "Rechercher des locations", description = "Recherche plein texte dans le nom et la description, classée par pertinence.")
+    @ApiResponse(responseCode = "200", description = "Résultats de la recherche.")
+    @ApiResponse(responseCode = "400", description = "Texte recherché absent ou taille invalide.")
+    @ApiResponse(responseCode = "401", description = "Non autorisé.")
+    @GetMapping("/search")
+    public ResponseEntity<RentalPage> searchRentals(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(rentalService.searchRentals(query, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint de synchronisation : locations créées ou modifiées depuis un curseur.
+     *
+     * @param since Curseur renvoyé par la synchronisation précédente ; absent pour tout le catalogue.
+     * @param limit Nombre maximal de locations (plafonné).
+     * @return Locations modifiées et curseur de la synchronisation suivante.
+     */
+    @Operation(summary = "Synchroniser les locations", description = "Retourne les locations créées ou modifiées depuis le curseur, et un nouveau curseur.")
+    @ApiResponse(responseCode = "200", description = "Changements depuis le curseur.")
+    @ApiResponse(responseCode = "400", description = "Curseur ou taille invalide.")
+    @ApiResponse(responseCode = "401", description = "Non autorisé.")
+    @GetMapping("/changes")
+    public ResponseEntity<RentalChanges> getRentalChanges(
+            @RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(rentalService.getRentalChanges(since, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint du flux des créations et modifications de locations (Server-Sent Events).
+     * Chaque événement porte un ID ; à la reconnexion, le navigateur renvoie le dernier reçu dans
+     * l'en-tête Last-Event-ID et les événements manqués sont rejoués.
+     *
+     * @param lastEventId Dernier ID d'événement reçu, pour reprendre le flux.
+     * @return Émetteur SSE des événements "created" et "updated" (et "reset" si la reprise est impossible).
+     */
+    @Operation(summary = "Suivre les modifications des locations", description = "Flux SSE des créations et modifications, avec reprise par Last-Event-ID.")
+    @ApiResponse(responseCode = "200", description = "Flux ouvert.")
+    @ApiResponse(responseCode = "401", description = "Non autorisé.")
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRentalChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return rentalChangeHub.subscribe(lastEventId);
+    }
 
-        // Création de la réponse avec la clé "rentals"
-        Map<String, Object> response = new HashMap<>();
-        response.put("rentals", rentals);
+    /**
+     * Endpoint d'export de tout le catalogue des locations, écrit en flux sur la réponse.
+     *
+     * @param format   Format d'export : "ndjson" (une location par ligne) ou "json" (tableau).
+     * @param response Réponse HTTP sur laquelle le catalogue est écrit.
+     * @throws IOException si l'écriture de la réponse échoue.
+     */
+    @Operation(summary = "Exporter toutes les locations", description = "Écrit le catalogue complet en flux, en NDJSON ou en tableau JSON.")
+    @ApiResponse(responseCode = "200", description = "Catalogue exporté.")
+    @ApiResponse(responseCode = "400", description = "Format d'export inconnu.")
+    @ApiResponse(responseCode = "401", description = "Non autorisé.")
+    @GetMapping("/export")
+    public void exportRentals(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        RentalExportFormat exportFormat;
+        try {
+            exportFormat = RentalExportFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
 
-        return ResponseEntity.ok(response);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        long count = rentalService.exportRentals(exportFormat, response.getOutputStream());
+        logger.info("Export du catalogue terminé : " + count + " locations.");
     }
 
     /**
      * Endpoint pour récupérer une location par ID.
      *
-     * @param id Identifiant de la location à récupérer.
-     * @return DTO de la location récupérée.
+     * @param id         Identifiant de la location à récupérer.
+     * @param webRequest Requête courante, pour les en-têtes conditionnels (If-None-Match, If-Modified-Since).
+     * @return DTO de la location récupérée, ou 304 si le client détient déjà cette version.
      */
     @Operation(summary = "Récupérer une location par ID")
     @ApiResponse(responseCode = "200", description = "Location récupérée avec succès.")
+    @ApiResponse(responseCode = "304", description = "Location inchangée depuis la version détenue par le client.")
     @ApiResponse(responseCode = "401", description = "Non autorisé.")
     @GetMapping("/{id}")
-    public ResponseEntity<RentalDTO> getRentalById(@PathVariable Long id) {
+    public ResponseEntity<RentalDTO> getRentalById(@PathVariable Long id, WebRequest webRequest) {
+        Date updatedAt = rentalService.getRentalVersion(id);
+        if (updatedAt != null && webRequest.checkNotModified(rentalETag(id, updatedAt), updatedAt.getTime())) {
+            return null;
+        }
         RentalDTO rentalDTO = rentalService.getRental(id);
         if (rentalDTO == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
@@ -90,13 +255,14 @@ public class RentalController {
      *
      * @param createRentalDTO Données pour créer la location.
      * @param picture         Fichier image de la location (optionnel).
-     * @return DTO de la location créée encapsulé dans SnackbarNotif.
+     * @return DTO de la location créée encapsulé dans SnackbarNotif, une fois l'image envoyée ; la requête
+     *         est terminée de façon asynchrone, sans occuper de thread de Tomcat pendant l'envoi.
      */
     @Operation(summary = "Créer une nouvelle location", description = "Permet de créer une location et d'associer une image.")
     @ApiResponse(responseCode = "200", description = "Location créée avec succès.")
     @ApiResponse(responseCode = "401", description = "Non autorisé.")
     @PostMapping(consumes = { "multipart/form-data" })
-    public ResponseEntity<SnackbarNotif> createRental(
+    public CompletableFuture<ResponseEntity<SnackbarNotif>> createRental(
             @ModelAttribute CreateRentalDTO createRentalDTO,
             @RequestParam(value = "picture", required = false) MultipartFile picture) {
 
@@ -108,11 +274,9 @@ public class RentalController {
         // Récupérer l'ID de l'utilisateur authentifié
         Long ownerId = authService.getAuthenticatedUserId();
 
-        // Appeler le service pour créer la location
-        RentalDTO rentalDTO = rentalService.createRental(createRentalDTO, picture, ownerId);
-
-        // Retourner la réponse encapsulée dans SnackbarNotif
-        return ResponseEntity.ok(new SnackbarNotif(rentalDTO, "Location créée avec succès!"));
+        // Appeler le service pour créer la location, puis retourner la réponse encapsulée dans SnackbarNotif
+        return rentalService.createRental(createRentalDTO, picture, ownerId)
+                .thenApply(rentalDTO -> ResponseEntity.ok(new SnackbarNotif(rentalDTO, "Location créée avec succès!")));
     }
 
     /**
@@ -144,4 +308,69 @@ public class RentalController {
         // Retourner la réponse encapsulée dans SnackbarNotif
         return ResponseEntity.ok(new SnackbarNotif(updatedRental, "Location mise à jour avec succès!"));
     }
+
+    // ETag fort d'une location : son ID et sa date de modification
+    private static String rentalETag(Long id, Date updatedAt) {
+        return "\"" + id + "-" + updatedAt.getTime() + "\"";
+    }
+
+    // ETag fort d'une page : version de la collection et paramètres qui déterminent le contenu de la page
+    private static String pageETag(RentalCollectionVersion version, Integer limit, String cursor, RentalFilter filter,
+                                   boolean gzip) {
+        return "\"" + version.getCount() + "-" + toMillis(version.getLastModified()) + "-" + version.getRevision()
+                + "-" + (limit != null ? limit : "") + "-" + (cursor != null ? cursor : "")
+                + (filter.isEmpty() ? "" : "-" + filter.toKey()) + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    // Accept-Encoding (RFC 9110) : gzip est accepté s'il est cité, ou couvert par "*", avec une qualité non nulle
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Float gzipQuality = null;
+        Float anyQuality = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            float quality = 1f;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Float.parseFloat(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0f;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (coding.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        float quality = gzipQuality != null ? gzipQuality : anyQuality != null ? anyQuality : 0f;
+        return quality > 0f;
+    }
+
+    // Un curseur invalide n'entre pas dans l'ETag (il est rejeté en 400 par le service)
+    private static boolean isOpaqueCursor(String cursor) {
+        if (cursor == null) {
+            return true;
+        }
+        for (int i = 0; i < cursor.length(); i++) {
+            char c = cursor.charAt(i);
+            boolean base64Url = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '=';
+            if (!base64Url) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // -1 désactive la comparaison If-Modified-Since (collection vide)
+    private static long toMillis(Date date) {
+        return date != null ? date.getTime() : -1L;
+    }
 }
\ No newline at end of file
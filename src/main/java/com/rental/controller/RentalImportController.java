@@ -0,0 +1,69 @@
+package com.rental.controller;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.rental.dto.RentalImportReportDTO;
+import com.rental.service.AuthService;
+import com.rental.service.RentalImportFormat;
+import com.rental.service.RentalImportService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Contrôleur d'administration pour l'import en masse de locations (reprise du catalogue d'une agence).
+ */
+@Tag(name = "Administration des locations", description = "Import en masse de locations")
+@RestController
+@RequestMapping("/api/admin/rentals")
+public class RentalImportController {
+
+    private final RentalImportService rentalImportService;
+    private final AuthService authService;
+
+    public RentalImportController(RentalImportService rentalImportService, AuthService authService) {
+        this.rentalImportService = rentalImportService;
+        this.authService = authService;
+    }
+
+    /**
+     * Importe les locations du corps de la requête, lu en flux.
+     *
+     * @param format  Format du corps : "ndjson" (une location par ligne) ou "csv" (avec en-tête).
+     * @param ownerId Propriétaire des locations importées ; par défaut, l'administrateur connecté.
+     * @param request Requête dont le corps est lu en flux.
+     * @return le compte rendu de l'import, lot par lot
+     * @throws IOException si la lecture du corps échoue.
+     */
+    @Operation(summary = "Importer des locations en masse",
+            description = "Lit un flux NDJSON ou CSV (name, description, price, surface, picture) et l'enregistre par lots.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import terminé"),
+            @ApiResponse(responseCode = "400", description = "Format, propriétaire ou enregistrement invalide : les lots déjà validés sont conservés"),
+            @ApiResponse(responseCode = "403", description = "Réservé aux administrateurs")
+    })
+    @PostMapping("/import")
+    public ResponseEntity<RentalImportReportDTO> importRentals(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "ownerId", required = false) Long ownerId,
+            HttpServletRequest request) throws IOException {
+        try {
+            RentalImportFormat importFormat = RentalImportFormat.fromParameter(format);
+            Long owner = ownerId != null ? ownerId : authService.getAuthenticatedUserId();
+            return ResponseEntity.ok(rentalImportService.importRentals(importFormat, request.getInputStream(), owner));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -1,22 +1,39 @@
 package com.rental.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 
 /**
  * Data Transfer Object (DTO) pour les réponses d'authentification.
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class AuthResponseDTO {
 
-    @Schema(description = "Token JWT généré après authentification")
+    @Schema(description = "Token JWT d'accès, de courte durée, généré après authentification")
     private final String token;
 
+    @Schema(description = "Token de rafraîchissement, à usage unique, échangeable contre une nouvelle paire de tokens")
+    private final String refreshToken;
+
     /**
      * Constructeur pour initialiser le DTO avec un token.
      *
      * @param token le token JWT généré après authentification
      */
     public AuthResponseDTO(String token) {
+        this(token, null);
+    }
+
+    /**
+     * Constructeur pour initialiser le DTO avec un token d'accès et un token de rafraîchissement.
+     *
+     * @param token        le token JWT d'accès
+     * @param refreshToken le token de rafraîchissement
+     */
+    public AuthResponseDTO(String token, String refreshToken) {
         this.token = token;
+        this.refreshToken = refreshToken;
     }
 
     /**
@@ -27,4 +44,13 @@ public class AuthResponseDTO {
     public String getToken() {
         return token;
     }
-}
\ No newline at end of file
+
+    /**
+     * Retourne le token de rafraîchissement.
+     *
+     * @return le token de rafraîchissement, ou null s'il n'y en a pas
+     */
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+}
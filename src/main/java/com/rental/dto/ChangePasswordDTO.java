@@ -0,0 +1,47 @@
+package com.rental.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO pour le changement de mot de passe de l'utilisateur connecté.
+ */
+public class ChangePasswordDTO {
+
+    @Schema(description = "Mot de passe actuel de l'utilisateur", example = "P@ssw0rd")
+    @NotBlank(message = "Le mot de passe actuel est obligatoire.")
+    private String currentPassword;
+
+    @Schema(description = "Nouveau mot de passe de l'utilisateur", example = "N3wP@ssw0rd")
+    @NotBlank(message = "Le nouveau mot de passe est obligatoire.")
+    @Size(min = 6, message = "Le mot de passe doit contenir au moins 6 caractères.")
+    private String newPassword;
+
+    // Constructeur par défaut
+    public ChangePasswordDTO() {
+    }
+
+    // Constructeur avec paramètres
+    public ChangePasswordDTO(String currentPassword, String newPassword) {
+        this.currentPassword = currentPassword;
+        this.newPassword = newPassword;
+    }
+
+    // ====== Getters & Setters ======
+    public String getCurrentPassword() {
+        return currentPassword;
+    }
+
+    public void setCurrentPassword(String currentPassword) {
+        this.currentPassword = currentPassword;
+    }
+
+    public String getNewPassword() {
+        return newPassword;
+    }
+
+    public void setNewPassword(String newPassword) {
+        this.newPassword = newPassword;
+    }
+}
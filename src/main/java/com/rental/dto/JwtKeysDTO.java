@@ -0,0 +1,30 @@
+package com.rental.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO décrivant le trousseau des clés de signature JWT.
+ */
+public class JwtKeysDTO {
+
+    @Schema(description = "Identifiant (kid) de la clé qui signe les nouveaux tokens ; absent si la clé HS256 historique signe encore")
+    private final String activeKid;
+
+    @Schema(description = "Identifiants (kid) des clés acceptées pour la vérification")
+    private final List<String> kids;
+
+    public JwtKeysDTO(String activeKid, List<String> kids) {
+        this.activeKid = activeKid;
+        this.kids = kids;
+    }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public List<String> getKids() {
+        return kids;
+    }
+}
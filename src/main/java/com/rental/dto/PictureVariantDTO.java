@@ -0,0 +1,29 @@
+package com.rental.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Déclinaison de l'image d'une location à une largeur donnée : le client choisit la plus petite
+ * qui couvre la taille affichée.
+ */
+public class PictureVariantDTO {
+
+    @Schema(description = "Largeur de l'image, en pixels")
+    private final int width;
+
+    @Schema(description = "URL de l'image (JPEG)")
+    private final String url;
+
+    public PictureVariantDTO(int width, String url) {
+        this.width = width;
+        this.url = url;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+}
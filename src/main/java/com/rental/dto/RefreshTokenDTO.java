@@ -0,0 +1,32 @@
+package com.rental.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * DTO pour l'échange d'un token de rafraîchissement.
+ */
+public class RefreshTokenDTO {
+
+    @Schema(description = "Token de rafraîchissement reçu lors de la connexion ou du dernier rafraîchissement")
+    @NotBlank(message = "Le token de rafraîchissement est obligatoire.")
+    private String refreshToken;
+
+    // Constructeur par défaut
+    public RefreshTokenDTO() {
+    }
+
+    // Constructeur avec paramètres
+    public RefreshTokenDTO(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    // ====== Getters & Setters ======
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
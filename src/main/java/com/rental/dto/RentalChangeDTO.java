@@ -0,0 +1,44 @@
+package com.rental.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO compact d'une modification de location, poussé aux abonnés du flux des modifications.
+ * Le client recharge la location si besoin via GET /api/rentals/{id}.
+ */
+public class RentalChangeDTO {
+
+    @Schema(description = "Nature de la modification : created ou updated")
+    private final String type;
+
+    @Schema(description = "ID de la location")
+    private final Long id;
+
+    @Schema(description = "Date de modification de la location")
+    @JsonProperty("updated_at")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private final LocalDateTime updatedAt;
+
+    public RentalChangeDTO(String type, Long id, LocalDateTime updatedAt) {
+        this.type = type;
+        this.id = id;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
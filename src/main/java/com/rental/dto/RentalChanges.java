@@ -0,0 +1,44 @@
+package com.rental.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Locations créées ou modifiées depuis un curseur de synchronisation, par date de modification
+ * croissante puis par ID. Le curseur est toujours renvoyé : le client le conserve pour la
+ * synchronisation suivante, même si aucune location n'a changé.
+ */
+public class RentalChanges {
+
+    @Schema(description = "Locations créées ou modifiées depuis le curseur")
+    private final List<RentalDTO> rentals;
+
+    @Schema(description = "Curseur opaque à transmettre lors de la prochaine synchronisation")
+    @JsonProperty("next_cursor")
+    private final String nextCursor;
+
+    @Schema(description = "Vrai si d'autres changements attendent : rappeler immédiatement avec le nouveau curseur")
+    @JsonProperty("has_more")
+    private final boolean hasMore;
+
+    public RentalChanges(List<RentalDTO> rentals, String nextCursor, boolean hasMore) {
+        this.rentals = rentals;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<RentalDTO> getRentals() {
+        return rentals;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
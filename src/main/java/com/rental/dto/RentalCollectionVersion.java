@@ -0,0 +1,52 @@
+package com.rental.dto;
+
+import java.util.Date;
+
+/**
+ * Version de la collection des locations : date de dernière modification, nombre de locations et
+ * révision du cache de l'instance. Les dates sont fixées avant la validation : une transaction lente
+ * peut être validée sans changer les deux premières valeurs, mais toute écriture validée change la révision.
+ */
+public class RentalCollectionVersion {
+
+    private final Date lastModified;
+    private final long count;
+    private final String revision;
+
+    // Constructeur de projection JPQL (select new ...)
+    public RentalCollectionVersion(Date lastModified, long count) {
+        this(lastModified, count, "");
+    }
+
+    private RentalCollectionVersion(Date lastModified, long count, String revision) {
+        this.lastModified = lastModified;
+        this.count = count;
+        this.revision = revision;
+    }
+
+    /**
+     * @param revision Révision du cache au moment du calcul.
+     * @return Cette version, complétée par la révision.
+     */
+    public RentalCollectionVersion withRevision(String revision) {
+        return new RentalCollectionVersion(lastModified, count, revision);
+    }
+
+    /**
+     * @return Date de modification la plus récente, ou null si la collection est vide.
+     */
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Révision du cache de l'instance, changée par chaque écriture validée ; vide si inconnue.
+     */
+    public String getRevision() {
+        return revision;
+    }
+}
@@ -1,9 +1,19 @@
 package com.rental.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.rental.util.Srcset;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 /**
  * DTO pour représenter une location (Rental).
@@ -16,6 +26,16 @@ public class RentalDTO {
     private String description;
     private String picture;
 
+    // Déclinaisons de l'image par largeur croissante ; absentes pour les images antérieures
+    @JsonProperty("picture_variants")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<PictureVariantDTO> pictureVariants = Collections.emptyList();
+
+    // Aperçu flou (BlurHash) à afficher avant le chargement de l'image
+    @JsonProperty("picture_placeholder")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String picturePlaceholder;
+
     @JsonProperty("created_at")
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime createdAt;
@@ -27,6 +47,14 @@ public class RentalDTO {
     @JsonProperty("owner_id")
     private Long ownerId;
 
+    // Date de création exacte, non sérialisée : sert de clé à la pagination par curseur
+    @JsonIgnore
+    private Date createdAtTimestamp;
+
+    // Date de modification exacte, non sérialisée : sert de version (ETag, Last-Modified)
+    @JsonIgnore
+    private Date updatedAtTimestamp;
+
     // Constructeur sans argument
     public RentalDTO() {
     }
@@ -45,6 +73,32 @@ public class RentalDTO {
         this.updatedAt = updatedAt;
     }
 
+    // Constructeur de projection JPQL (select new ...) : colonnes lues directement, sans entité
+    public RentalDTO(Long id, String name, String description, double price, int surface, String picture,
+                     String pictureVariants, String picturePlaceholder, Date createdAt, Date updatedAt,
+                     Long ownerId) {
+        this(id, name, description, (int) price, surface, picture,
+                toLocalDateTime(createdAt), toLocalDateTime(updatedAt), ownerId);
+        this.pictureVariants = toPictureVariants(pictureVariants);
+        this.picturePlaceholder = picturePlaceholder;
+        this.createdAtTimestamp = createdAt;
+        this.updatedAtTimestamp = updatedAt;
+    }
+
+    private static List<PictureVariantDTO> toPictureVariants(String srcset) {
+        List<PictureVariantDTO> variants = new ArrayList<>();
+        for (Map.Entry<Integer, String> variant : Srcset.parse(srcset).entrySet()) {
+            variants.add(new PictureVariantDTO(variant.getKey(), variant.getValue()));
+        }
+        return variants;
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date != null
+                ? Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDateTime()
+                : null;
+    }
+
     // ====== Getters & Setters ======
     
     public Long getId() {
@@ -87,6 +141,22 @@ public class RentalDTO {
         this.picture = picture;
     }
 
+    public List<PictureVariantDTO> getPictureVariants() {
+        return pictureVariants;
+    }
+
+    public void setPictureVariants(List<PictureVariantDTO> pictureVariants) {
+        this.pictureVariants = pictureVariants;
+    }
+
+    public String getPicturePlaceholder() {
+        return picturePlaceholder;
+    }
+
+    public void setPicturePlaceholder(String picturePlaceholder) {
+        this.picturePlaceholder = picturePlaceholder;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -119,6 +189,14 @@ public class RentalDTO {
         this.updatedAt = updatedAt;
     }
 
+    public Date getCreatedAtTimestamp() {
+        return createdAtTimestamp;
+    }
+
+    public Date getUpdatedAtTimestamp() {
+        return updatedAtTimestamp;
+    }
+
     // Implémentation de toString() pour une représentation textuelle de l'objet
     @Override
     public String toString() {
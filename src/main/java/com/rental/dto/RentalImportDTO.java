@@ -0,0 +1,74 @@
+package com.rental.dto;
+
+/**
+ * DTO d'une location importée en masse (une ligne NDJSON ou un enregistrement CSV).
+ * Le propriétaire est commun à tout l'import.
+ */
+public class RentalImportDTO {
+
+    // Nom de la location (obligatoire)
+    private String name;
+
+    // Description de la location
+    private String description;
+
+    // Prix de la location (obligatoire)
+    private Double price;
+
+    // Surface de la location en m² (obligatoire)
+    private Integer surface;
+
+    // URL de l'image déjà hébergée
+    private String picture;
+
+    public RentalImportDTO() {
+    }
+
+    public RentalImportDTO(String name, String description, Double price, Integer surface, String picture) {
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.surface = surface;
+        this.picture = picture;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public Integer getSurface() {
+        return surface;
+    }
+
+    public void setSurface(Integer surface) {
+        this.surface = surface;
+    }
+
+    public String getPicture() {
+        return picture;
+    }
+
+    public void setPicture(String picture) {
+        this.picture = picture;
+    }
+}
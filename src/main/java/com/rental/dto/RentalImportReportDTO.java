@@ -0,0 +1,84 @@
+package com.rental.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO du compte rendu d'un import en masse de locations, lot par lot.
+ */
+public class RentalImportReportDTO {
+
+    @Schema(description = "Nombre total de locations importées")
+    private final long imported;
+
+    @Schema(description = "Durée totale de l'import, lecture du corps comprise, en millisecondes")
+    @JsonProperty("duration_ms")
+    private final long durationMillis;
+
+    @Schema(description = "Détail de chaque lot validé")
+    private final List<Chunk> chunks;
+
+    public RentalImportReportDTO(long imported, long durationMillis, List<Chunk> chunks) {
+        this.imported = imported;
+        this.durationMillis = durationMillis;
+        this.chunks = chunks;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Lot validé dans sa propre transaction : taille, durée d'écriture et débit.
+     */
+    public static class Chunk {
+
+        @Schema(description = "Numéro du lot, à partir de 1")
+        private final int index;
+
+        @Schema(description = "Nombre de locations du lot")
+        private final int rows;
+
+        @Schema(description = "Durée d'écriture et de validation du lot, en millisecondes")
+        @JsonProperty("duration_ms")
+        private final long durationMillis;
+
+        @Schema(description = "Débit du lot, en locations par seconde")
+        @JsonProperty("rows_per_second")
+        private final double rowsPerSecond;
+
+        public Chunk(int index, int rows, long durationMillis, double rowsPerSecond) {
+            this.index = index;
+            this.rows = rows;
+            this.durationMillis = durationMillis;
+            this.rowsPerSecond = rowsPerSecond;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public double getRowsPerSecond() {
+            return rowsPerSecond;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.rental.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Page de locations, triée par date de création puis par ID, ou selon le tri demandé.
+ * Conserve la clé "rentals" attendue par les clients existants.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RentalPage {
+
+    @Schema(description = "Locations de la page")
+    private final List<RentalDTO> rentals;
+
+    @Schema(description = "Curseur opaque de la page suivante ; absent sur la dernière page")
+    @JsonProperty("next_cursor")
+    private final String nextCursor;
+
+    public RentalPage(List<RentalDTO> rentals, String nextCursor) {
+        this.rentals = rentals;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<RentalDTO> getRentals() {
+        return rentals;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,41 @@
+package com.rental.entity;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+/**
+ * Entité représentant un token de rafraîchissement déjà échangé, conservé jusqu'à son expiration
+ * pour détecter sa réutilisation, y compris après un redémarrage ou sur une autre instance.
+ */
+@Entity
+@Table(name = "consumed_refresh_tokens", indexes = {
+        // Index de la purge des tokens expirés
+        @Index(name = "idx_consumed_refresh_tokens_expires_at", columnList = "expires_at")
+})
+public class ConsumedRefreshToken {
+
+    @Id
+    @Column(name = "jti", length = 64)
+    private String jti; // Identifiant du token échangé
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId; // Utilisateur auquel le token a été émis
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "expires_at", nullable = false)
+    private Date expiresAt; // Expiration du token : la ligne peut être purgée ensuite
+
+    // ---- GETTERS ET SETTERS ---- //
+
+    public String getJti() { return jti; }
+
+    public void setJti(String jti) { this.jti = jti; }
+
+    public Long getUserId() { return userId; }
+
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Date getExpiresAt() { return expiresAt; }
+
+    public void setExpiresAt(Date expiresAt) { this.expiresAt = expiresAt; }
+}
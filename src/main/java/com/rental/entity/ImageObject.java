@@ -0,0 +1,84 @@
+package com.rental.entity;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+/**
+ * Entité représentant une image stockée dans S3, adressée par son contenu : deux envois identiques
+ * partagent le même objet, compté une fois par location qui le référence.
+ * La ligne est créée avant l'envoi, comme réservation : une image sans référence n'est supprimée qu'une
+ * fois sa réservation expirée, par le balayage périodique (voir {@code ImageStorageService}).
+ */
+@Entity
+@Table(name = "image_objects")
+public class ImageObject {
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash; // Empreinte SHA-256 du contenu, en hexadécimal
+
+    @Column(name = "object_prefix", length = 80, nullable = false)
+    private String objectPrefix; // Préfixe des clés S3 : l'empreinte, suivie de la date de la réservation
+
+    @Column(name = "url", nullable = false)
+    private String url; // URL de l'image originale
+
+    @Column(name = "variants", length = 1024)
+    private String variants; // Déclinaisons de l'image, au format srcset
+
+    @Column(name = "placeholder", length = 64)
+    private String placeholder; // Aperçu flou de l'image (BlurHash)
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount; // Nombre de locations qui référencent l'image
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at")
+    private Date createdAt; // Date du premier envoi
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "reserved_at", nullable = false)
+    private Date reservedAt; // Dernière réservation par un envoi ; protège l'image du balayage
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "stored_at")
+    private Date storedAt; // Première référence par une location : l'image est complète dans S3
+
+    // ---- GETTERS ET SETTERS ---- //
+
+    public String getHash() { return hash; }
+
+    public void setHash(String hash) { this.hash = hash; }
+
+    public String getObjectPrefix() { return objectPrefix; }
+
+    public void setObjectPrefix(String objectPrefix) { this.objectPrefix = objectPrefix; }
+
+    public String getUrl() { return url; }
+
+    public void setUrl(String url) { this.url = url; }
+
+    public String getVariants() { return variants; }
+
+    public void setVariants(String variants) { this.variants = variants; }
+
+    public String getPlaceholder() { return placeholder; }
+
+    public void setPlaceholder(String placeholder) { this.placeholder = placeholder; }
+
+    public int getRefCount() { return refCount; }
+
+    public void setRefCount(int refCount) { this.refCount = refCount; }
+
+    public Date getCreatedAt() { return createdAt; }
+
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+
+    public Date getReservedAt() { return reservedAt; }
+
+    public void setReservedAt(Date reservedAt) { this.reservedAt = reservedAt; }
+
+    public Date getStoredAt() { return storedAt; }
+
+    public void setStoredAt(Date storedAt) { this.storedAt = storedAt; }
+}
@@ -8,11 +8,20 @@ import java.util.function.Function;
  * Entité représentant une location.
  */
 @Entity
-@Table(name = "rentals")
+@Table(name = "rentals", indexes = {
+        // Index de la pagination par curseur (created_at, id)
+        @Index(name = "idx_rentals_created_at_id", columnList = "created_at, id"),
+        // Index de la synchronisation des changements (updated_at, id)
+        @Index(name = "idx_rentals_updated_at_id", columnList = "updated_at, id")
+})
 public class Rental {
 
+    // IDs réservés par blocs dans la table id_generators (optimiseur pooled-lo) : contrairement à IDENTITY,
+    // Hibernate connaît l'ID avant l'insertion et peut regrouper les INSERT en batchs JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "rental_id")
+    @TableGenerator(name = "rental_id", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "rentals", allocationSize = 50)
     private Long id; // Identifiant unique de la location
 
     @Column(nullable = false)
@@ -30,14 +39,22 @@ public class Rental {
     @Column(name = "picture", nullable = false)
     private String picture; // URL de l'image associée à la location
 
-    @ManyToOne
+    @Column(name = "picture_variants", length = 1024)
+    private String pictureVariants; // Déclinaisons de l'image, au format srcset ("URL 320w, URL 640w")
+
+    @Column(name = "picture_placeholder", length = 64)
+    private String picturePlaceholder; // Aperçu flou de l'image (BlurHash)
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false) // Clé étrangère pour l'utilisateur propriétaire
     private User owner; // Propriétaire de la location (association avec User)
 
     @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at")
     private Date createdAt; // Date de création de l'entité
 
     @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "updated_at")
     private Date updatedAt; // Date de dernière mise à jour de l'entité
 
     /**
@@ -90,6 +107,14 @@ public class Rental {
         this.picture = picture;
     }
 
+    public String getPictureVariants() { return pictureVariants; }
+
+    public void setPictureVariants(String pictureVariants) { this.pictureVariants = pictureVariants; }
+
+    public String getPicturePlaceholder() { return picturePlaceholder; }
+
+    public void setPicturePlaceholder(String picturePlaceholder) { this.picturePlaceholder = picturePlaceholder; }
+
     public User getOwner() { return owner; }
 
     public void setOwner(User owner) { this.owner = owner; }
@@ -53,6 +53,10 @@ public class User {
     @Column(nullable = false)
     private Role role;
 
+    // Époque de révocation des tokens : incrémentée pour invalider tous les tokens déjà émis
+    @Column(name = "token_epoch", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int tokenEpoch;
+
     @OneToMany(mappedBy = "owner", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Rental> rentals;
 
@@ -161,6 +165,14 @@ public class User {
         this.role = role;
     }
 
+    public int getTokenEpoch() {
+        return tokenEpoch;
+    }
+
+    public void setTokenEpoch(int tokenEpoch) {
+        this.tokenEpoch = tokenEpoch;
+    }
+
     public List<Rental> getRentals() {
         return rentals;
     }
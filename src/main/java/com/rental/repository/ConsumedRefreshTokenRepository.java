@@ -0,0 +1,45 @@
+package com.rental.repository;
+
+import com.rental.entity.ConsumedRefreshToken;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository interface for ConsumedRefreshToken entity.
+ * Consumed refresh token IDs are kept until the token expires, so reuse is detected across restarts
+ * and instances.
+ */
+public interface ConsumedRefreshTokenRepository extends JpaRepository<ConsumedRefreshToken, String> {
+
+    /**
+     * Records a refresh token as consumed, unless it already was.
+     * The primary key on jti makes the check and the insert a single atomic statement.
+     *
+     * @param jti       ID of the refresh token.
+     * @param userId    ID of the user the token was issued to.
+     * @param expiresAt Expiration date of the token.
+     * @return 1 if the token had never been consumed, 0 otherwise.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert ignore into consumed_refresh_tokens (jti, user_id, expires_at)"
+            + " values (:jti, :userId, :expiresAt)", nativeQuery = true)
+    int consume(@Param("jti") String jti, @Param("userId") Long userId, @Param("expiresAt") Date expiresAt);
+
+    /**
+     * Deletes the consumed tokens that have expired: they can no longer be presented.
+     *
+     * @param now Current date.
+     * @return The number of deleted rows.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from ConsumedRefreshToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Date now);
+}
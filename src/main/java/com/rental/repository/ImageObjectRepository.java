@@ -0,0 +1,97 @@
+package com.rental.repository;
+
+import com.rental.entity.ImageObject;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository interface for ImageObject entity.
+ * Images are keyed by the SHA-256 of their content and reference-counted per rental.
+ * A row is reserved before its objects are uploaded; unreferenced rows whose reservation
+ * has expired are swept, together with their objects.
+ */
+public interface ImageObjectRepository extends JpaRepository<ImageObject, String> {
+
+    /**
+     * Reserves an image before its upload, creating its row without reference, or renewing the
+     * reservation of the existing row (whose prefix and URL are kept).
+     *
+     * @param hash   SHA-256 of the image content, in hexadecimal.
+     * @param prefix Prefix of the S3 keys, used if the row is created.
+     * @param url    URL of the original image, used if the row is created.
+     * @param now    Reservation time.
+     * @return The number of affected rows.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into image_objects (hash, object_prefix, url, ref_count, created_at, reserved_at)"
+            + " values (:hash, :prefix, :url, 0, :now, :now)"
+            + " on duplicate key update reserved_at = :now", nativeQuery = true)
+    int reserve(@Param("hash") String hash, @Param("prefix") String prefix, @Param("url") String url,
+                @Param("now") Date now);
+
+    /**
+     * Renews the reservation of an image, provided its row still points at the same objects.
+     *
+     * @param hash SHA-256 of the image content, in hexadecimal.
+     * @param url  URL of the original image, as known by the caller.
+     * @param now  Reservation time.
+     * @return 1 if the reservation was renewed, 0 if the row was swept or recreated since.
+     */
+    @Modifying
+    @Transactional
+    @Query("update ImageObject o set o.reservedAt = :now where o.hash = :hash and o.url = :url")
+    int renew(@Param("hash") String hash, @Param("url") String url, @Param("now") Date now);
+
+    /**
+     * Records one more reference to a reserved image, marking it as stored on the first reference.
+     * Joins the caller's transaction, so the reference is only kept if the rental is saved.
+     *
+     * @param hash        SHA-256 of the image content, in hexadecimal.
+     * @param url         URL of the original image.
+     * @param variants    Derivatives of the image, in srcset format, or null.
+     * @param placeholder BlurHash placeholder, or null.
+     * @param now         Reference time.
+     * @return 1 if the reference was recorded, 0 if the row was swept since its reservation.
+     */
+    @Modifying
+    @Transactional
+    @Query("update ImageObject o set o.refCount = o.refCount + 1, o.storedAt = coalesce(o.storedAt, :now),"
+            + " o.variants = coalesce(o.variants, :variants), o.placeholder = coalesce(o.placeholder, :placeholder)"
+            + " where o.hash = :hash and o.url = :url")
+    int retain(@Param("hash") String hash, @Param("url") String url, @Param("variants") String variants,
+               @Param("placeholder") String placeholder, @Param("now") Date now);
+
+    /**
+     * Finds unreferenced images whose reservation has expired, oldest reservation first.
+     *
+     * @param cutoff   Images reserved before this time are returned.
+     * @param pageable Maximum number of images.
+     * @return The images to sweep.
+     */
+    @Query("select o from ImageObject o where o.refCount = 0 and o.reservedAt < :cutoff order by o.reservedAt")
+    List<ImageObject> findExpired(@Param("cutoff") Date cutoff, Pageable pageable);
+
+    /**
+     * Deletes an image row, provided it is still unreferenced, unreserved since the cutoff and
+     * points at the same objects. Only the instance whose delete succeeds removes the objects.
+     *
+     * @param hash   SHA-256 of the image content, in hexadecimal.
+     * @param url    URL of the original image.
+     * @param cutoff Reservation time below which the image may be deleted.
+     * @return 1 if the row was deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from ImageObject o where o.hash = :hash and o.url = :url and o.refCount = 0"
+            + " and o.reservedAt < :cutoff")
+    int deleteExpired(@Param("hash") String hash, @Param("url") String url, @Param("cutoff") Date cutoff);
+}
@@ -1,12 +1,138 @@
 package com.rental.repository;
 
+import com.rental.dto.RentalCollectionVersion;
+import com.rental.dto.RentalDTO;
 import com.rental.entity.Rental;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Repository interface for Rental entity.
- * No additional methods needed for basic CRUD operations.
+ * Read queries project the RentalDTO columns directly (constructor expressions): no managed entity
+ * and no owner is loaded, owner_id is read as a plain foreign key column.
+ * Listing is keyset-paginated on (createdAt, id), backed by the idx_rentals_created_at_id index;
+ * change sync is keyset-paginated on (updatedAt, id), backed by the idx_rentals_updated_at_id index.
  */
 public interface RentalRepository extends JpaRepository<Rental, Long> {
-    // JpaRepository already provides the necessary methods (findById, save, deleteById, etc.)
+
+    String DTO_PROJECTION = "select new com.rental.dto.RentalDTO(r.id, r.name, r.description, r.price,"
+            + " r.surface, r.picture, r.pictureVariants, r.picturePlaceholder, r.createdAt, r.updatedAt, r.owner.id)"
+            + " from Rental r";
+
+    /**
+     * Fetches a rental projected as a DTO.
+     *
+     * @param id The ID of the rental.
+     * @return Optional containing the rental if found, empty otherwise.
+     */
+    @Query(DTO_PROJECTION + " where r.id = :id")
+    Optional<RentalDTO> findDtoById(@Param("id") Long id);
+
+    /**
+     * Fetches several rentals projected as DTOs, in no particular order.
+     *
+     * @param ids The IDs of the rentals.
+     * @return The rentals that exist among the given IDs.
+     */
+    @Query(DTO_PROJECTION + " where r.id in :ids")
+    List<RentalDTO> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Fetches only the last modification date of a rental, used as its version.
+     *
+     * @param id The ID of the rental.
+     * @return Optional containing the date if the rental exists, empty otherwise.
+     */
+    @Query("select r.updatedAt from Rental r where r.id = :id")
+    Optional<Date> findUpdatedAtById(@Param("id") Long id);
+
+    /**
+     * Computes the version of the whole collection: latest modification date and row count.
+     *
+     * @return The collection version.
+     */
+    @Query("select new com.rental.dto.RentalCollectionVersion(max(r.updatedAt), count(r)) from Rental r")
+    RentalCollectionVersion findCollectionVersion();
+
+    /**
+     * Fetches the first rentals ordered by creation date then ID.
+     * Only the page size of the pageable is used; no count query is issued.
+     *
+     * @param pageable Page size (offset 0).
+     * @return Rentals of the first page.
+     */
+    @Query(DTO_PROJECTION + " order by r.createdAt asc, r.id asc")
+    List<RentalDTO> findFirstPage(Pageable pageable);
+
+    /**
+     * Fetches the rentals positioned strictly after the given (createdAt, id) key.
+     *
+     * @param createdAt Creation date of the last rental of the previous page.
+     * @param id        ID of the last rental of the previous page.
+     * @param pageable  Page size (offset 0).
+     * @return Rentals of the next page.
+     */
+    @Query(DTO_PROJECTION
+            + " where r.createdAt > :createdAt or (r.createdAt = :createdAt and r.id > :id)"
+            + " order by r.createdAt asc, r.id asc")
+    List<RentalDTO> findPageAfter(@Param("createdAt") Date createdAt, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Fetches the rentals modified strictly after the given (updatedAt, id) key and no later than
+     * the horizon, ordered by modification date then ID.
+     *
+     * @param updatedAt Modification date of the last rental already synced.
+     * @param id        ID of the last rental already synced.
+     * @param horizon   Latest modification date to return.
+     * @param pageable  Page size (offset 0).
+     * @return Changed rentals.
+     */
+    @Query(DTO_PROJECTION
+            + " where (r.updatedAt > :updatedAt or (r.updatedAt = :updatedAt and r.id > :id))"
+            + " and r.updatedAt <= :horizon"
+            + " order by r.updatedAt asc, r.id asc")
+    List<RentalDTO> findChangesAfter(@Param("updatedAt") Date updatedAt, @Param("id") Long id,
+                                     @Param("horizon") Date horizon, Pageable pageable);
+
+    /**
+     * Streams every rental, in listing order, through a forward-only cursor.
+     * The MySQL driver only streams rows with a fetch size of Integer.MIN_VALUE.
+     * Must be consumed inside a transaction and closed after use.
+     *
+     * @return Stream of all rentals.
+     */
+    @Query(DTO_PROJECTION + " order by r.createdAt asc, r.id asc")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    Stream<RentalDTO> streamAll();
+
+    /**
+     * Moves the rental ID generator past the highest existing ID, creating its row if needed.
+     * Rentals inserted before the switch from IDENTITY used AUTO_INCREMENT values that the
+     * generator does not know about.
+     *
+     * @return The number of affected rows.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into id_generators (sequence_name, next_val)"
+            + " select 'rentals', coalesce(max(id), 0) + 1 from rentals"
+            + " on duplicate key update next_val = greatest(next_val, values(next_val))", nativeQuery = true)
+    int alignIdGenerator();
 }
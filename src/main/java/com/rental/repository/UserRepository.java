@@ -2,7 +2,16 @@ package com.rental.repository;
 
 import com.rental.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
+
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -24,5 +33,47 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return True if a user exists with the given email, false otherwise.
      */
     boolean existsByEmail(String email);
-    
+
+    /**
+     * Streams every registered email without loading user entities.
+     * The MySQL driver only streams rows with a fetch size of Integer.MIN_VALUE.
+     * Must be consumed inside a transaction and closed after use.
+     *
+     * @return Stream of all user emails.
+     */
+    @Query("select u.email from User u")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    Stream<String> streamAllEmails();
+
+    /**
+     * Lists the token epoch of every user whose tokens have been revoked at least once.
+     * Each row holds the user ID and the epoch.
+     *
+     * @return Pairs of user ID and token epoch.
+     */
+    @Query("select u.id, u.tokenEpoch from User u where u.tokenEpoch > 0")
+    List<Object[]> findRevokedTokenEpochs();
+
+    /**
+     * Finds the current token epoch of a user.
+     *
+     * @param id The ID of the user.
+     * @return Optional containing the epoch if the user exists, empty otherwise.
+     */
+    @Query("select u.tokenEpoch from User u where u.id = :id")
+    Optional<Integer> findTokenEpochById(@Param("id") Long id);
+
+    /**
+     * Atomically increments the token epoch of a user, revoking every token issued before.
+     *
+     * @param id The ID of the user.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Query("update User u set u.tokenEpoch = u.tokenEpoch + 1 where u.id = :id")
+    int incrementTokenEpoch(@Param("id") Long id);
+
 }
@@ -0,0 +1,137 @@
+package com.rental.security;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.rental.entity.Role;
+
+/**
+ * Principal léger placé dans le contexte de sécurité pour une requête authentifiée par JWT.
+ * Il est construit directement à partir des claims vérifiées, sans accès à la base de données.
+ * Instance immuable : lorsqu'elle est chargée par {@link UserDetailsLoader} pour vérifier un mot
+ * de passe, elle porte aussi le hash du mot de passe.
+ */
+public final class AuthenticatedUser implements UserDetails {
+
+    private static final long serialVersionUID = 1L;
+
+    // Une seule liste d'autorités, immuable, partagée par rôle
+    private static final Map<Role, List<GrantedAuthority>> AUTHORITIES_BY_ROLE = new EnumMap<>(Role.class);
+
+    static {
+        for (Role role : Role.values()) {
+            AUTHORITIES_BY_ROLE.put(role,
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
+    private final Long id;
+    private final String email;
+    private final Role role;
+    private final String password;
+
+    public AuthenticatedUser(Long id, String email, Role role) {
+        this(id, email, role, null);
+    }
+
+    public AuthenticatedUser(Long id, String email, Role role, String password) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.password = password;
+    }
+
+    /**
+     * Construit le principal à partir d'un token vérifié portant les claims d'identité.
+     *
+     * @param token Token vérifié.
+     * @return Principal correspondant.
+     */
+    public static AuthenticatedUser fromToken(VerifiedToken token) {
+        return new AuthenticatedUser(token.getUserId(), token.getSubject(), token.getRole());
+    }
+
+    /**
+     * Retourne la liste d'autorités partagée associée à un rôle.
+     *
+     * @param role Rôle de l'utilisateur.
+     * @return Liste immuable d'autorités.
+     */
+    public static List<GrantedAuthority> authoritiesFor(Role role) {
+        return AUTHORITIES_BY_ROLE.get(role);
+    }
+
+    /**
+     * Retourne une copie de ce principal sans le hash du mot de passe,
+     * destinée au contexte de sécurité.
+     *
+     * @return Principal sans mot de passe.
+     */
+    public AuthenticatedUser withoutPassword() {
+        return password == null ? this : new AuthenticatedUser(id, email, role);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authoritiesFor(role);
+    }
+
+    // Hash du mot de passe, null pour le principal issu d'un JWT
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{" +
+                "id=" + id +
+                ", email='" + email + '\'' +
+                ", role=" + role +
+                '}';
+    }
+}
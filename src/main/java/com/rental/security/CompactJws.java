@@ -0,0 +1,74 @@
+package com.rental.security;
+
+/**
+ * Validation de la forme compacte d'un JWS (trois segments Base64URL non vides séparés par des points),
+ * en une seule passe et sans allocation.
+ */
+public final class CompactJws {
+
+    private static final boolean[] BASE64_URL = new boolean[128];
+
+    static {
+        for (char c = 'A'; c <= 'Z'; c++) {
+            BASE64_URL[c] = true;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            BASE64_URL[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            BASE64_URL[c] = true;
+        }
+        BASE64_URL['-'] = true;
+        BASE64_URL['_'] = true;
+    }
+
+    private CompactJws() {
+    }
+
+    /**
+     * Vérifie qu'une portion de chaîne est un JWS compact bien formé.
+     *
+     * @param value Chaîne contenant le token.
+     * @param from  Début du token (inclus).
+     * @param to    Fin du token (exclue).
+     * @return true si la portion contient exactement trois segments Base64URL (sans padding) non vides.
+     */
+    public static boolean isWellFormed(String value, int from, int to) {
+        int dots = 0;
+        int segmentLength = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (segmentLength == 0 || ++dots > 2) {
+                    return false;
+                }
+                segmentLength = 0;
+            } else if (c < 128 && BASE64_URL[c]) {
+                segmentLength++;
+            } else {
+                return false;
+            }
+        }
+        return dots == 2 && segmentLength > 0;
+    }
+
+    /**
+     * @return Index du premier caractère qui n'est pas un espace (au sens de {@link String#trim()}).
+     */
+    public static int skipLeadingWhitespace(String value, int from, int to) {
+        while (from < to && value.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * @return Index suivant le dernier caractère qui n'est pas un espace (au sens de {@link String#trim()}).
+     */
+    public static int skipTrailingWhitespace(String value, int from, int to) {
+        while (to > from && value.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+}
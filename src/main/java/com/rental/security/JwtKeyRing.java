@@ -0,0 +1,270 @@
+package com.rental.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
+/**
+ * Trousseau des clés de signature des JWT, indexé par l'en-tête "kid".
+ * <p>
+ * Les clés asymétriques (ECDSA, ES256 pour P-256) sont lues dans le répertoire {@code jwt.keys.dir} :
+ * {@code <kid>.pub} (clé publique X.509, PEM) et, pour les clés capables de signer,
+ * {@code <kid>.key} (clé privée PKCS#8, PEM). Le fichier {@code active-kid} désigne la clé de signature.
+ * Une clé publique sans clé privée sert uniquement à vérifier : une clé retirée reste ainsi dans le
+ * trousseau jusqu'à l'expiration des derniers tokens qu'elle a signés.
+ * <p>
+ * La clé HS256 issue de JWT_SECRET vérifie les tokens sans "kid" et signe tant qu'aucune clé
+ * active n'est configurée. Une fois les derniers tokens HS256 expirés, {@code jwt.keys.legacy-hs256-accepted}
+ * à false la retire : les tokens sans "kid" sont refusés, et une clé active est alors obligatoire.
+ * Le trousseau est rechargé à chaud par {@link #reload()} : l'ensemble des clés est remplacé d'un
+ * seul coup, sans redémarrage.
+ */
+@Component
+public class JwtKeyRing extends SigningKeyResolverAdapter {
+
+    private static final Logger logger = Logger.getLogger(JwtKeyRing.class.getName());
+
+    private static final String ACTIVE_KID_FILE = "active-kid";
+    private static final String PRIVATE_KEY_SUFFIX = ".key";
+    private static final String PUBLIC_KEY_SUFFIX = ".pub";
+
+    // Clé HS256 historique, ou null si elle est retirée
+    private final JwtKey legacyKey;
+    private final Path keysDir;
+
+    // Instantané immuable, remplacé en bloc à chaque rechargement
+    private volatile KeySet keySet;
+
+    public JwtKeyRing(@Value("${JWT_SECRET}") String secretKeyBase64,
+                      @Value("${jwt.keys.dir:}") String keysDir,
+                      @Value("${jwt.keys.legacy-hs256-accepted:true}") boolean legacyAccepted) {
+        if (legacyAccepted) {
+            if (secretKeyBase64 == null || secretKeyBase64.isEmpty()) {
+                throw new IllegalArgumentException("La clé secrète JWT doit être définie.");
+            }
+            Key secretKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKeyBase64));
+            this.legacyKey = new JwtKey(null, SignatureAlgorithm.HS256, secretKey, secretKey);
+        } else {
+            this.legacyKey = null;
+        }
+        this.keysDir = keysDir == null || keysDir.isBlank() ? null : Paths.get(keysDir);
+        this.keySet = load();
+    }
+
+    /**
+     * Relit le répertoire des clés et remplace le trousseau. En cas d'erreur, le trousseau courant
+     * est conservé.
+     *
+     * @return Le trousseau rechargé.
+     * @throws IllegalStateException si le répertoire contient une clé illisible ou incohérente.
+     */
+    public synchronized KeySet reload() {
+        KeySet reloaded = load();
+        this.keySet = reloaded;
+        logger.info("Trousseau JWT rechargé : clé active " + reloaded.getActiveKid()
+                + ", clés " + reloaded.getKids() + ".");
+        return reloaded;
+    }
+
+    /**
+     * @return Le trousseau courant.
+     */
+    public KeySet getKeySet() {
+        return keySet;
+    }
+
+    /**
+     * @return La clé utilisée pour signer les nouveaux tokens.
+     */
+    public JwtKey getSigningKey() {
+        return keySet.active;
+    }
+
+    /**
+     * Résout la clé de vérification d'un JWS d'après son en-tête "kid", en refusant tout
+     * algorithme différent de celui de la clé.
+     */
+    // jjwt 0.11 déclare l'en-tête en type brut : JwsHeader<?> ne serait pas une redéfinition
+    @SuppressWarnings("rawtypes")
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String kid = header.getKeyId();
+        JwtKey key = kid == null ? legacyKey : keySet.keysByKid.get(kid);
+        if (key == null) {
+            throw new SignatureException(kid == null ? "Token sans clé de signature (HS256 historique) refusé."
+                    : "Clé de signature inconnue : " + kid);
+        }
+        if (!key.algorithm.getValue().equals(header.getAlgorithm())) {
+            throw new SignatureException("Algorithme " + header.getAlgorithm() + " refusé pour la clé " + kid);
+        }
+        return key.verificationKey;
+    }
+
+    private KeySet load() {
+        if (keysDir == null) {
+            if (legacyKey == null) {
+                throw new IllegalStateException("Aucun répertoire de clés JWT alors que la clé HS256 historique est retirée.");
+            }
+            return new KeySet(Collections.emptyMap(), legacyKey);
+        }
+        try {
+            Map<String, JwtKey> keysByKid = new HashMap<>();
+            try (DirectoryStream<Path> publicKeys = Files.newDirectoryStream(keysDir, "*" + PUBLIC_KEY_SUFFIX)) {
+                for (Path publicKeyFile : publicKeys) {
+                    String fileName = publicKeyFile.getFileName().toString();
+                    String kid = fileName.substring(0, fileName.length() - PUBLIC_KEY_SUFFIX.length());
+                    keysByKid.put(kid, readKey(kid, publicKeyFile, keysDir.resolve(kid + PRIVATE_KEY_SUFFIX)));
+                }
+            }
+
+            Path activeKidFile = keysDir.resolve(ACTIVE_KID_FILE);
+            JwtKey active = legacyKey;
+            if (!Files.exists(activeKidFile) && legacyKey == null) {
+                throw new IllegalStateException("Aucune clé active dans " + keysDir
+                        + " alors que la clé HS256 historique est retirée.");
+            }
+            if (Files.exists(activeKidFile)) {
+                String activeKid = Files.readString(activeKidFile, StandardCharsets.US_ASCII).trim();
+                active = keysByKid.get(activeKid);
+                if (active == null || active.signingKey == null) {
+                    throw new IllegalStateException("La clé active " + activeKid + " n'a pas de clé privée.");
+                }
+            }
+            return new KeySet(Collections.unmodifiableMap(keysByKid), active);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Lecture des clés JWT impossible dans " + keysDir, e);
+        }
+    }
+
+    private static JwtKey readKey(String kid, Path publicKeyFile, Path privateKeyFile)
+            throws IOException, GeneralSecurityException {
+        KeyFactory keyFactory = KeyFactory.getInstance("EC");
+        PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(readPem(publicKeyFile)));
+        PrivateKey privateKey = Files.exists(privateKeyFile)
+                ? keyFactory.generatePrivate(new PKCS8EncodedKeySpec(readPem(privateKeyFile)))
+                : null;
+
+        // L'algorithme est déduit de la courbe (P-256 : ES256), jamais de l'en-tête du token
+        SignatureAlgorithm algorithm = algorithmFor((ECPublicKey) publicKey);
+        if (privateKey != null) {
+            algorithm.assertValidSigningKey(privateKey);
+        }
+        return new JwtKey(kid, algorithm, privateKey, publicKey);
+    }
+
+    private static SignatureAlgorithm algorithmFor(ECPublicKey publicKey) {
+        int fieldSize = publicKey.getParams().getCurve().getField().getFieldSize();
+        switch (fieldSize) {
+            case 256:
+                return SignatureAlgorithm.ES256;
+            case 384:
+                return SignatureAlgorithm.ES384;
+            case 521:
+                return SignatureAlgorithm.ES512;
+            default:
+                throw new IllegalStateException("Courbe elliptique non supportée : " + fieldSize + " bits.");
+        }
+    }
+
+    // Décode un fichier PEM (en-têtes ignorés)
+    private static byte[] readPem(Path file) throws IOException {
+        StringBuilder base64 = new StringBuilder();
+        for (String line : Files.readAllLines(file, StandardCharsets.US_ASCII)) {
+            if (!line.startsWith("-----")) {
+                base64.append(line.trim());
+            }
+        }
+        return Base64.getDecoder().decode(base64.toString());
+    }
+
+    /**
+     * Clé du trousseau : algorithme, clé de signature (absente pour une clé retirée) et clé de vérification.
+     */
+    public static final class JwtKey {
+
+        private final String kid;
+        private final SignatureAlgorithm algorithm;
+        private final Key signingKey;
+        private final Key verificationKey;
+
+        JwtKey(String kid, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey) {
+            this.kid = kid;
+            this.algorithm = algorithm;
+            this.signingKey = signingKey;
+            this.verificationKey = verificationKey;
+        }
+
+        /**
+         * @return Identifiant de la clé, ou null pour la clé HS256 historique.
+         */
+        public String getKid() {
+            return kid;
+        }
+
+        public SignatureAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public Key getSigningKey() {
+            return signingKey;
+        }
+    }
+
+    /**
+     * Instantané immuable du trousseau.
+     */
+    public static final class KeySet {
+
+        private final Map<String, JwtKey> keysByKid;
+        private final JwtKey active;
+
+        KeySet(Map<String, JwtKey> keysByKid, JwtKey active) {
+            this.keysByKid = keysByKid;
+            this.active = active;
+        }
+
+        /**
+         * @return Identifiant de la clé active, ou null si la clé HS256 historique signe encore.
+         */
+        public String getActiveKid() {
+            return active.kid;
+        }
+
+        /**
+         * @return Identifiants de toutes les clés de vérification.
+         */
+        public List<String> getKids() {
+            List<String> kids = new ArrayList<>(keysByKid.keySet());
+            Collections.sort(kids);
+            return kids;
+        }
+    }
+}
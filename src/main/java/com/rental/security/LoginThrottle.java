@@ -0,0 +1,162 @@
+package com.rental.security;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Limitation des tentatives de connexion par adresse IP cliente et par email.
+ * Chaque clé dispose d'un seau à jetons stocké dans un unique {@link AtomicLong} et mis à jour par CAS,
+ * sans verrou. Les seaux sont conservés dans des caches bornés (répartis par segments) et retirés
+ * après une période d'inactivité.
+ */
+@Component
+public class LoginThrottle {
+
+    private final Cache<String, TokenBucket> bucketsByIp;
+    private final Cache<String, TokenBucket> bucketsByEmail;
+    private final long ipIntervalNanos;
+    private final long ipCapacity;
+    private final long emailIntervalNanos;
+    private final long emailCapacity;
+    private final Counter throttledByIp;
+    private final Counter throttledByEmail;
+
+    /**
+     * @param ipCapacity       Nombre de tentatives consécutives autorisées par adresse IP.
+     * @param ipRefill         Délai de recharge d'une tentative pour une adresse IP.
+     * @param emailCapacity    Nombre de tentatives consécutives autorisées par email.
+     * @param emailRefill      Délai de recharge d'une tentative pour un email.
+     * @param maxKeys          Nombre maximal de seaux conservés par type de clé.
+     * @param idleTimeout      Durée d'inactivité après laquelle un seau est retiré.
+     * @param meterRegistry    Registre des métriques.
+     */
+    public LoginThrottle(@Value("${auth.login-throttle.ip.capacity:20}") long ipCapacity,
+                         @Value("${auth.login-throttle.ip.refill:3s}") Duration ipRefill,
+                         @Value("${auth.login-throttle.email.capacity:5}") long emailCapacity,
+                         @Value("${auth.login-throttle.email.refill:1m}") Duration emailRefill,
+                         @Value("${auth.login-throttle.max-keys:100000}") long maxKeys,
+                         @Value("${auth.login-throttle.idle-timeout:15m}") Duration idleTimeout,
+                         MeterRegistry meterRegistry) {
+        if (ipCapacity <= 0 || emailCapacity <= 0) {
+            throw new IllegalArgumentException("La capacité des seaux de connexion doit être positive.");
+        }
+        this.ipCapacity = ipCapacity;
+        this.ipIntervalNanos = ipRefill.toNanos();
+        this.emailCapacity = emailCapacity;
+        this.emailIntervalNanos = emailRefill.toNanos();
+
+        this.bucketsByIp = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        this.bucketsByEmail = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, bucketsByIp, "auth.login-throttle.ip");
+        CaffeineCacheMetrics.monitor(meterRegistry, bucketsByEmail, "auth.login-throttle.email");
+
+        this.throttledByIp = Counter.builder("auth.login.throttled")
+                .description("Tentatives de connexion refusées par la limitation")
+                .tag("key", "ip")
+                .register(meterRegistry);
+        this.throttledByEmail = Counter.builder("auth.login.throttled")
+                .description("Tentatives de connexion refusées par la limitation")
+                .tag("key", "email")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Consomme une tentative pour l'adresse IP puis pour l'email.
+     * À appeler avant toute recherche d'utilisateur ou vérification de mot de passe.
+     *
+     * @param clientIp Adresse IP du client.
+     * @param email    Email saisi.
+     * @throws LoginThrottledException si l'une des deux limites est atteinte.
+     */
+    public void acquire(String clientIp, String email) {
+        long now = System.nanoTime();
+
+        long ipWait = bucketsByIp.get(clientIp, key -> new TokenBucket(now))
+                .tryConsume(now, ipIntervalNanos, ipCapacity);
+        if (ipWait > 0) {
+            throttledByIp.increment();
+            throw new LoginThrottledException(toRetryAfterSeconds(ipWait));
+        }
+
+        if (email != null) {
+            long emailWait = bucketsByEmail.get(emailKey(email), key -> new TokenBucket(now))
+                    .tryConsume(now, emailIntervalNanos, emailCapacity);
+            if (emailWait > 0) {
+                throttledByEmail.increment();
+                throw new LoginThrottledException(toRetryAfterSeconds(emailWait));
+            }
+        }
+    }
+
+    /**
+     * Réinitialise le seau de l'email après une connexion réussie.
+     *
+     * @param email Email authentifié.
+     */
+    public void reset(String email) {
+        if (email != null) {
+            bucketsByEmail.invalidate(emailKey(email));
+        }
+    }
+
+    // MySQL compare les emails sans tenir compte de la casse : la clé est normalisée de même
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1L, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Seau à jetons réduit à une seule valeur : l'instant théorique (en nanosecondes) auquel
+     * le seau sera de nouveau plein. Une tentative avance cet instant d'un intervalle ; elle est
+     * refusée s'il dépasse l'instant courant de plus de la capacité du seau.
+     */
+    static final class TokenBucket {
+
+        private final AtomicLong fullAt;
+
+        TokenBucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * @return 0 si la tentative est autorisée, sinon le délai d'attente en nanosecondes.
+         */
+        long tryConsume(long now, long intervalNanos, long capacity) {
+            long burstNanos = intervalNanos * capacity;
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long excess = next - now - burstNanos;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0L;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.rental.security;
+
+/**
+ * Exception levée lorsqu'une tentative de connexion dépasse la limite autorisée.
+ * Traduite en réponse 429 avec un en-tête Retry-After.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(long retryAfterSeconds) {
+        super("Trop de tentatives de connexion. Réessayez plus tard.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return Délai conseillé avant une nouvelle tentative, en secondes.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,93 @@
+package com.rental.security;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rental.repository.ConsumedRefreshTokenRepository;
+import com.rental.service.JwtService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Registre des tokens de rafraîchissement déjà échangés, indexé par leur identifiant (jti).
+ * Un token présenté une seconde fois signale un vol probable : la rotation le détecte ici.
+ * <p>
+ * La table consumed_refresh_tokens est la source de vérité : chaque jti y est conservé jusqu'à
+ * l'expiration de son token, quels que soient les redémarrages et le nombre d'instances. Les jti
+ * récemment échangés sont aussi gardés en mémoire, pour rejeter une réutilisation sans requête.
+ */
+@Component
+public class RefreshTokenRegistry {
+
+    private static final Logger logger = Logger.getLogger(RefreshTokenRegistry.class.getName());
+
+    private final ConsumedRefreshTokenRepository consumedRefreshTokenRepository;
+    private final Cache<String, Boolean> consumedTokenIds;
+    private final ScheduledExecutorService purger;
+
+    public RefreshTokenRegistry(ConsumedRefreshTokenRepository consumedRefreshTokenRepository,
+                                JwtService jwtService,
+                                @Value("${jwt.refresh-token.consumed-max-size:100000}") long maxSize,
+                                @Value("${jwt.refresh-token.purge-interval:1h}") Duration purgeInterval,
+                                MeterRegistry meterRegistry) {
+        this.consumedRefreshTokenRepository = consumedRefreshTokenRepository;
+        this.consumedTokenIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(jwtService.getRefreshTokenTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, consumedTokenIds, "jwt.consumed-refresh-tokens");
+
+        this.purger = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("refresh-token-purge-"));
+        this.purger.scheduleWithFixedDelay(this::purgeExpired,
+                purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Marque un token de rafraîchissement comme échangé.
+     *
+     * @param token Token de rafraîchissement vérifié, portant un jti.
+     * @return true si le token n'avait encore jamais été échangé.
+     */
+    public boolean consume(VerifiedToken token) {
+        String tokenId = token.getTokenId();
+        if (consumedTokenIds.getIfPresent(tokenId) != null) {
+            return false;
+        }
+        boolean first = consumedRefreshTokenRepository.consume(tokenId, token.getUserId(),
+                Date.from(token.getExpiration())) == 1;
+        consumedTokenIds.put(tokenId, Boolean.TRUE);
+        return first;
+    }
+
+    // Les tokens expirés ne peuvent plus être présentés : leur jti est inutile
+    private void purgeExpired() {
+        try {
+            int deleted = consumedRefreshTokenRepository.deleteExpired(new Date());
+            if (deleted > 0) {
+                logger.fine("Tokens de rafraîchissement expirés purgés : " + deleted);
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Purge des tokens de rafraîchissement expirés impossible", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+    }
+}
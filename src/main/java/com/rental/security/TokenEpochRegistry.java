@@ -0,0 +1,120 @@
+package com.rental.security;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.rental.repository.UserRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Époques de révocation des tokens, conservées en mémoire pour vérifier chaque requête sans
+ * accès à la base de données. Seuls les utilisateurs dont l'époque a déjà été incrémentée sont
+ * présents dans la table : pour tous les autres, l'époque vaut 0.
+ * La colonne users.token_epoch reste la source de vérité ; la table est chargée au démarrage puis
+ * relue périodiquement. Une révocation faite sur cette instance est immédiate ; faite sur une autre
+ * instance, elle n'est prise en compte qu'au rechargement suivant (auth.token-epochs.refresh-interval).
+ */
+@Component
+public class TokenEpochRegistry {
+
+    private static final Logger logger = Logger.getLogger(TokenEpochRegistry.class.getName());
+
+    private final UserRepository userRepository;
+    private final Map<Long, Integer> epochsByUserId = new ConcurrentHashMap<>();
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService refresher;
+
+    public TokenEpochRegistry(UserRepository userRepository,
+                              @Value("${auth.token-epochs.refresh-interval:30s}") Duration refreshInterval,
+                              MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.refreshInterval = refreshInterval;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("token-epochs-refresh-"));
+        Gauge.builder("auth.token-epochs.size", epochsByUserId, Map::size)
+                .description("Utilisateurs dont les tokens ont déjà été révoqués")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Charge les époques non nulles avant que l'application ne serve des requêtes, puis planifie
+     * leur rechargement pour prendre en compte les révocations faites par les autres instances.
+     */
+    @PostConstruct
+    public void load() {
+        reload();
+        logger.info("Époques de révocation des tokens chargées : " + epochsByUserId.size() + " utilisateurs.");
+        refresher.scheduleWithFixedDelay(this::refresh,
+                refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void reload() {
+        for (Object[] row : userRepository.findRevokedTokenEpochs()) {
+            // Une époque ne recule jamais, même si la révocation locale est plus récente que la lecture
+            epochsByUserId.merge(((Number) row[0]).longValue(), ((Number) row[1]).intValue(), Math::max);
+        }
+    }
+
+    private void refresh() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Rechargement des époques de révocation des tokens impossible", e);
+        }
+    }
+
+    /**
+     * @param userId ID de l'utilisateur.
+     * @return Époque courante de l'utilisateur.
+     */
+    public int currentEpoch(Long userId) {
+        return epochsByUserId.getOrDefault(userId, 0);
+    }
+
+    /**
+     * Indique si un token émis à l'époque donnée est toujours valide pour l'utilisateur.
+     *
+     * @param userId ID de l'utilisateur.
+     * @param epoch  Époque portée par le token.
+     * @return true si aucune révocation n'a eu lieu depuis l'émission du token.
+     */
+    public boolean isCurrent(Long userId, int epoch) {
+        return epoch == currentEpoch(userId);
+    }
+
+    /**
+     * Révoque tous les tokens déjà émis pour un utilisateur en incrémentant son époque.
+     *
+     * @param userId ID de l'utilisateur.
+     * @return La nouvelle époque, à porter par les tokens émis ensuite.
+     */
+    @Transactional
+    public int revokeAll(Long userId) {
+        userRepository.incrementTokenEpoch(userId);
+        int epoch = userRepository.findTokenEpochById(userId)
+                .orElseThrow(() -> new IllegalStateException("Utilisateur non trouvé avec l'ID : " + userId));
+        // Les incréments concurrents ne doivent jamais faire reculer l'époque en mémoire
+        epochsByUserId.merge(userId, epoch, Math::max);
+        return epoch;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+}
@@ -0,0 +1,13 @@
+package com.rental.security;
+
+/**
+ * Type d'un JWT émis par l'application, porté par la claim "typ".
+ */
+public enum TokenType {
+
+    /** Token d'accès de courte durée, présenté dans l'en-tête Authorization. */
+    ACCESS,
+
+    /** Token de rafraîchissement, échangé une seule fois contre une nouvelle paire de tokens. */
+    REFRESH
+}
@@ -1,67 +1,158 @@
 package com.rental.security;
 
-import java.util.Collections;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.rental.entity.User;
 import com.rental.repository.UserRepository;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
 /**
  * Service de chargement des utilisateurs depuis la base de données.
+ * Résolveur unique des utilisateurs pour Spring Security : les utilisateurs chargés sont conservés
+ * dans un cache en mémoire borné (taille et durée de vie), indexé par email et par ID.
+ * Une génération, incrémentée à chaque invalidation, empêche un chargement commencé avant une
+ * modification de remettre en cache l'utilisateur qu'il a lu (par exemple l'ancien hash du mot de passe).
  */
 @Service
 public class UserDetailsLoader implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final Cache<String, AuthenticatedUser> usersByEmail;
+    private final Cache<Long, AuthenticatedUser> usersById;
+    private final AtomicLong generation = new AtomicLong();
 
     /**
      * Constructeur avec injection du repository utilisateur.
      *
      * @param userRepository Repository pour récupérer les utilisateurs.
+     * @param maxSize        Nombre maximal d'utilisateurs conservés par index.
+     * @param ttl            Durée de vie d'une entrée du cache.
+     * @param meterRegistry  Registre des métriques du cache.
      */
-    public UserDetailsLoader(UserRepository userRepository) {
+    public UserDetailsLoader(UserRepository userRepository,
+                             @Value("${users.cache.max-size:10000}") long maxSize,
+                             @Value("${users.cache.ttl:10m}") Duration ttl,
+                             MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.usersByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        monitor(meterRegistry, usersByEmail, "users.by-email");
+        monitor(meterRegistry, usersById, "users.by-id");
     }
 
     /**
      * Charge les détails de l'utilisateur par email (utilisé pour Spring Security).
      *
      * @param email Email de l'utilisateur à charger.
-     * @return UserDetails de l'utilisateur.
+     * @return UserDetails de l'utilisateur, avec le hash de son mot de passe.
      * @throws UsernameNotFoundException si l'utilisateur n'est pas trouvé.
      */
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+    public AuthenticatedUser loadUserByUsername(String email) throws UsernameNotFoundException {
+        AuthenticatedUser cached = usersByEmail.getIfPresent(emailKey(email));
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedGeneration = generation.get();
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec l'email : " + email));
-
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
-        );
+        return cache(user, loadedGeneration);
     }
 
     /**
      * Charge les détails de l'utilisateur par ID (utilisé pour Spring Security).
      *
      * @param id ID de l'utilisateur à charger.
-     * @return UserDetails de l'utilisateur.
+     * @return UserDetails de l'utilisateur, avec le hash de son mot de passe.
      * @throws UsernameNotFoundException si l'utilisateur n'est pas trouvé.
      */
-    public UserDetails loadUserById(Long id) throws UsernameNotFoundException {
+    public AuthenticatedUser loadUserById(Long id) throws UsernameNotFoundException {
+        AuthenticatedUser cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedGeneration = generation.get();
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec l'ID : " + id));
+        return cache(user, loadedGeneration);
+    }
+
+    /**
+     * Charge le principal léger d'un utilisateur par email.
+     * Utilisé uniquement pour les tokens émis avant l'ajout des claims d'identité.
+     *
+     * @param email Email de l'utilisateur à charger.
+     * @return Principal de l'utilisateur, sans mot de passe.
+     * @throws UsernameNotFoundException si l'utilisateur n'est pas trouvé.
+     */
+    public AuthenticatedUser loadAuthenticatedUser(String email) throws UsernameNotFoundException {
+        return loadUserByUsername(email).withoutPassword();
+    }
+
+    /**
+     * Retire un utilisateur du cache. À appeler après toute création ou modification d'un utilisateur.
+     *
+     * @param user Utilisateur créé ou modifié.
+     */
+    public void evict(User user) {
+        // Avant l'invalidation : un chargement en cours ne pourra plus remettre l'ancienne version en cache
+        generation.incrementAndGet();
+        if (user.getEmail() != null) {
+            usersByEmail.invalidate(emailKey(user.getEmail()));
+        }
+        if (user.getId() != null) {
+            AuthenticatedUser previous = usersById.getIfPresent(user.getId());
+            usersById.invalidate(user.getId());
+            // L'email a pu changer : retirer aussi l'ancienne entrée
+            if (previous != null) {
+                usersByEmail.invalidate(emailKey(previous.getEmail()));
+            }
+        }
+    }
+
+    // Place l'utilisateur dans les deux index du cache, sauf si une invalidation a eu lieu depuis sa lecture.
+    // La vérification est faite dans compute, atomique vis-à-vis de l'invalidation de la même clé.
+    private AuthenticatedUser cache(User user, long loadedGeneration) {
+        AuthenticatedUser loaded = new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(),
+                user.getPassword());
+        usersByEmail.asMap().compute(emailKey(user.getEmail()),
+                (key, current) -> generation.get() == loadedGeneration ? loaded : current);
+        usersById.asMap().compute(user.getId(),
+                (key, current) -> generation.get() == loadedGeneration ? loaded : current);
+        return loaded;
+    }
+
+    // MySQL compare les emails sans tenir compte de la casse : la clé du cache est normalisée de même
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
-        );
+    private static void monitor(MeterRegistry meterRegistry, Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .register(meterRegistry);
     }
-}
\ No newline at end of file
+}
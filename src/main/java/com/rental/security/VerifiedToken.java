@@ -0,0 +1,113 @@
+package com.rental.security;
+
+import java.time.Instant;
+
+import com.rental.entity.Role;
+
+/**
+ * Vue immuable des claims d'un JWT dont la signature et l'expiration ont été vérifiées.
+ * Produite une seule fois par {@link com.rental.service.JwtService#verifyToken(String)}.
+ */
+public final class VerifiedToken {
+
+    private final String subject;
+    private final Long userId;
+    private final Role role;
+    private final Instant issuedAt;
+    private final Instant expiration;
+    private final TokenType type;
+    private final String tokenId;
+    private final int epoch;
+
+    public VerifiedToken(String subject, Long userId, Role role, Instant issuedAt, Instant expiration,
+                         TokenType type, String tokenId, int epoch) {
+        this.subject = subject;
+        this.userId = userId;
+        this.role = role;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+        this.type = type;
+        this.tokenId = tokenId;
+        this.epoch = epoch;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * @return ID de l'utilisateur, ou null pour les tokens émis avant l'ajout de la claim.
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return Rôle de l'utilisateur, ou null pour les tokens émis avant l'ajout de la claim.
+     */
+    public Role getRole() {
+        return role;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * @return Type du token ; les tokens émis avant l'ajout de la claim sont des tokens d'accès.
+     */
+    public TokenType getType() {
+        return type;
+    }
+
+    /**
+     * @return Identifiant unique du token (claim "jti"), présent sur les tokens de rafraîchissement.
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    /**
+     * @return Époque de révocation de l'utilisateur au moment de l'émission (0 par défaut).
+     */
+    public int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Indique si le token est expiré à l'instant donné.
+     *
+     * @param now Instant de référence.
+     * @return true si le token est expiré.
+     */
+    public boolean isExpired(Instant now) {
+        return expiration != null && !expiration.isAfter(now);
+    }
+
+    /**
+     * Indique si le token porte l'identité complète de l'utilisateur (ID et rôle),
+     * ce qui permet d'authentifier la requête sans accès à la base de données.
+     *
+     * @return true si les claims d'identité sont présentes.
+     */
+    public boolean hasIdentityClaims() {
+        return subject != null && userId != null && role != null;
+    }
+
+    @Override
+    public String toString() {
+        return "VerifiedToken{" +
+                "subject='" + subject + '\'' +
+                ", userId=" + userId +
+                ", role=" + role +
+                ", issuedAt=" + issuedAt +
+                ", expiration=" + expiration +
+                ", type=" + type +
+                ", epoch=" + epoch +
+                '}';
+    }
+}
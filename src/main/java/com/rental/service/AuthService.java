@@ -1,9 +1,11 @@
 package com.rental.service;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.rental.dto.AuthRegisterDTO;
 import com.rental.dto.AuthResponseDTO;
@@ -11,27 +13,42 @@ import com.rental.dto.UserDTO;
 import com.rental.entity.Role;
 import com.rental.entity.User;
 import com.rental.repository.UserRepository;
+import com.rental.security.AuthenticatedUser;
+import com.rental.security.RefreshTokenRegistry;
+import com.rental.security.TokenEpochRegistry;
+import com.rental.security.TokenType;
+import com.rental.security.UserDetailsLoader;
+import com.rental.security.VerifiedToken;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 
 import com.rental.dto.AuthLoginDTO;
+import com.rental.dto.ChangePasswordDTO;
 
 @Service
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
     private final UserService userService;
+    private final UserDetailsLoader userDetailsLoader;
+    private final TokenEpochRegistry tokenEpochRegistry;
+    private final RefreshTokenRegistry refreshTokenRegistry;
 
     // Constructeur avec toutes les dépendances nécessaires
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, UserService userService) {
+    public AuthService(UserRepository userRepository, PasswordHashingService passwordHashingService,
+            JwtService jwtService, UserService userService, UserDetailsLoader userDetailsLoader,
+            TokenEpochRegistry tokenEpochRegistry, RefreshTokenRegistry refreshTokenRegistry) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.jwtService = jwtService;
         this.userService = userService;
+        this.userDetailsLoader = userDetailsLoader;
+        this.tokenEpochRegistry = tokenEpochRegistry;
+        this.refreshTokenRegistry = refreshTokenRegistry;
     }
 
     // Méthode d'inscription d'un utilisateur
@@ -41,19 +58,19 @@ public class AuthService {
             @ApiResponse(responseCode = "400", description = "Erreur lors de l'inscription (email déjà utilisé ou mot de passe invalide)")
     })
     public AuthResponseDTO register(AuthRegisterDTO registerDTO) {
-        // Vérifie si l'email existe déjà dans la base de données
-        if (userRepository.existsByEmail(registerDTO.getEmail())) {
+        // Crée un utilisateur avec le rôle par défaut ; la création vérifie seule si l'email existe déjà
+        User user;
+        try {
+            user = userService.createUser(registerDTO.getEmail(), registerDTO.getName(), registerDTO.getPassword(), Role.USER);
+        } catch (ResponseStatusException e) {
+            if (e.getStatusCode() != HttpStatus.BAD_REQUEST) {
+                throw e;
+            }
             throw new IllegalArgumentException("L'email est déjà utilisé.");
         }
 
-        // Crée un utilisateur avec le rôle par défaut
-        User user = userService.createUser(registerDTO.getEmail(), registerDTO.getName(), registerDTO.getPassword(), Role.USER);
-
-        // Génère un token JWT pour l'utilisateur
-        String jwtToken = jwtService.generateToken(user.getEmail());
-
-        // Retourne la réponse avec le JWT généré
-        return new AuthResponseDTO(jwtToken);
+        // Génère les tokens d'accès et de rafraîchissement pour l'utilisateur
+        return issueTokens(user.getId(), user.getEmail(), user.getRole());
     }
 
     // Méthode de connexion d'un utilisateur
@@ -63,20 +80,97 @@ public class AuthService {
             @ApiResponse(responseCode = "401", description = "Échec de l'authentification")
     })
     public AuthResponseDTO login(AuthLoginDTO loginDTO) {
-        // Récupère l'utilisateur par email
-        User user = userRepository.findByEmail(loginDTO.getEmail())
-                .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé avec l'email : " + loginDTO.getEmail()));
+        // Récupère l'utilisateur par email (depuis le cache du résolveur si possible)
+        AuthenticatedUser user;
+        try {
+            user = userDetailsLoader.loadUserByUsername(loginDTO.getEmail());
+        } catch (UsernameNotFoundException e) {
+            throw new IllegalArgumentException("Utilisateur non trouvé avec l'email : " + loginDTO.getEmail());
+        }
 
-        // Vérifie le mot de passe
-        if (!passwordEncoder.matches(loginDTO.getPassword(), user.getPassword())) {
+        // Vérifie le mot de passe sur le pool de hachage dédié
+        if (!passwordHashingService.matches(loginDTO.getPassword(), user.getPassword(), "login")) {
             throw new IllegalArgumentException("Mot de passe incorrect.");
         }
 
-        // Génère un token JWT pour l'utilisateur
-        String jwtToken = jwtService.generateToken(user.getEmail());
+        // Génère les tokens d'accès et de rafraîchissement pour l'utilisateur
+        return issueTokens(user.getId(), user.getEmail(), user.getRole());
+    }
+
+    /**
+     * Échange un token de rafraîchissement contre une nouvelle paire de tokens (rotation).
+     * Un token déjà échangé révoque tous les tokens de l'utilisateur : sa réutilisation signale un vol.
+     *
+     * @param refreshToken Token de rafraîchissement présenté par le client.
+     * @return Nouvelle paire de tokens.
+     * @throws IllegalArgumentException si le token est invalide, révoqué ou déjà utilisé.
+     */
+    public AuthResponseDTO refresh(String refreshToken) {
+        VerifiedToken token = jwtService.verifyToken(refreshToken)
+                .filter(verified -> verified.getType() == TokenType.REFRESH)
+                .filter(verified -> verified.hasIdentityClaims() && verified.getTokenId() != null
+                        && verified.getExpiration() != null)
+                .orElseThrow(() -> new IllegalArgumentException("Token de rafraîchissement invalide."));
+
+        if (!tokenEpochRegistry.isCurrent(token.getUserId(), token.getEpoch())) {
+            throw new IllegalArgumentException("Token de rafraîchissement révoqué.");
+        }
+        if (!refreshTokenRegistry.consume(token)) {
+            tokenEpochRegistry.revokeAll(token.getUserId());
+            throw new IllegalArgumentException("Token de rafraîchissement déjà utilisé.");
+        }
+
+        // Email et rôle relus depuis le cache des utilisateurs, pour refléter un éventuel changement
+        AuthenticatedUser user;
+        try {
+            user = userDetailsLoader.loadUserById(token.getUserId());
+        } catch (UsernameNotFoundException e) {
+            throw new IllegalArgumentException("Utilisateur non trouvé avec l'ID : " + token.getUserId());
+        }
+        return issueTokens(user.getId(), user.getEmail(), user.getRole());
+    }
+
+    /**
+     * Révoque tous les tokens déjà émis pour l'utilisateur connecté (déconnexion de toutes les sessions).
+     */
+    public void logoutAll() {
+        tokenEpochRegistry.revokeAll(getAuthenticatedUserId());
+    }
+
+    /**
+     * Change le mot de passe de l'utilisateur connecté et révoque tous ses tokens existants.
+     *
+     * @param changePasswordDTO Mot de passe actuel et nouveau mot de passe.
+     * @return Nouvelle paire de tokens pour la session courante.
+     * @throws IllegalArgumentException si le mot de passe actuel est incorrect.
+     */
+    public AuthResponseDTO changePassword(ChangePasswordDTO changePasswordDTO) {
+        Long userId = getAuthenticatedUserId();
+        AuthenticatedUser user;
+        try {
+            user = userDetailsLoader.loadUserById(userId);
+        } catch (UsernameNotFoundException e) {
+            throw new IllegalStateException("Utilisateur non trouvé");
+        }
+
+        // Vérifie le mot de passe actuel sur le pool de hachage dédié
+        if (!passwordHashingService.matches(changePasswordDTO.getCurrentPassword(), user.getPassword(), "password")) {
+            throw new IllegalArgumentException("Mot de passe actuel incorrect.");
+        }
+
+        userService.updatePassword(userId, changePasswordDTO.getNewPassword());
+        tokenEpochRegistry.revokeAll(userId);
+
+        // Les nouveaux tokens portent la nouvelle époque
+        return issueTokens(user.getId(), user.getEmail(), user.getRole());
+    }
 
-        // Retourne la réponse avec le JWT généré
-        return new AuthResponseDTO(jwtToken);
+    // Émet une paire de tokens (accès et rafraîchissement) à l'époque courante de l'utilisateur
+    private AuthResponseDTO issueTokens(Long userId, String email, Role role) {
+        int epoch = tokenEpochRegistry.currentEpoch(userId);
+        return new AuthResponseDTO(
+                jwtService.generateAccessToken(userId, email, role, epoch),
+                jwtService.generateRefreshToken(userId, email, role, epoch));
     }
 
     // Méthode pour récupérer les informations de l'utilisateur actuellement authentifié
@@ -91,14 +185,7 @@ public class AuthService {
      * @throws IllegalStateException si l'utilisateur authentifié est introuvable dans la base de données.
      */
     public Long getAuthenticatedUserId() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
-        if (principal instanceof UserDetails) {
-            return userRepository.findByEmail(((UserDetails) principal).getUsername())
-                    .orElseThrow(() -> new IllegalStateException("Utilisateur non trouvé")).getId();
-        } else {
-            throw new IllegalStateException("Utilisateur non authentifié");
-        }
+        return getAuthenticatedPrincipal().getId();
     }
 
     /**
@@ -108,11 +195,23 @@ public class AuthService {
      * @throws IllegalStateException si l'utilisateur authentifié est introuvable dans la base de données.
      */
     public User getAuthenticatedUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        Long userId = getAuthenticatedPrincipal().getId();
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalStateException("Utilisateur non trouvé"));
+    }
+
+    /**
+     * Récupère le principal placé dans le contexte de sécurité par le filtre JWT.
+     *
+     * @return Le principal authentifié.
+     * @throws IllegalStateException si la requête n'est pas authentifiée.
+     */
+    private AuthenticatedUser getAuthenticatedPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Object principal = authentication != null ? authentication.getPrincipal() : null;
 
-        if (principal instanceof UserDetails) {
-            return userRepository.findByEmail(((UserDetails) principal).getUsername())
-                    .orElseThrow(() -> new IllegalStateException("Utilisateur non trouvé"));
+        if (principal instanceof AuthenticatedUser) {
+            return (AuthenticatedUser) principal;
         } else {
             throw new IllegalStateException("Utilisateur non authentifié");
         }
@@ -0,0 +1,298 @@
+package com.rental.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.rental.util.Blurhash;
+import com.rental.util.ExifOrientation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Calcul des déclinaisons d'une image reçue : JPEG redressés selon l'orientation EXIF puis réencodés
+ * sans métadonnées, à plusieurs largeurs, et aperçu flou (BlurHash) à intégrer aux DTO.
+ * <p>
+ * Le décodage est le plus coûteux en mémoire : une image dont le nombre de pixels dépasse le budget
+ * n'est pas décodée, les autres sont lues sous-échantillonnées, leur plus grand côté juste au-dessus de
+ * la plus grande largeur produite, et le pool de calcul est borné. Une image refusée faute de place
+ * dans la file, trop grande ou illisible, est conservée sans déclinaisons.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger logger = Logger.getLogger(ImageDerivativeService.class.getName());
+
+    // Aperçu : 4 x 3 composantes, calculées sur une image d'une trentaine de pixels de large
+    private static final int PLACEHOLDER_WIDTH = 32;
+    private static final int PLACEHOLDER_COMPONENTS_X = 4;
+    private static final int PLACEHOLDER_COMPONENTS_Y = 3;
+
+    private final int[] widths;
+    private final float quality;
+    private final long maxPixels;
+    private final ThreadPoolExecutor workers;
+    private final Timer processing;
+    private final Counter skipped;
+
+    public ImageDerivativeService(@Value("${images.derivatives.widths:320,640,1280}") int[] widths,
+                                  @Value("${images.derivatives.quality:0.8}") float quality,
+                                  @Value("${images.derivatives.max-pixels:40000000}") long maxPixels,
+                                  @Value("${images.derivatives.threads:2}") int threads,
+                                  @Value("${images.derivatives.queue-capacity:16}") int queueCapacity,
+                                  MeterRegistry meterRegistry) {
+        if (widths.length == 0 || quality <= 0f || quality > 1f || maxPixels <= 0) {
+            throw new IllegalArgumentException("Largeurs ou qualité des déclinaisons d'images invalides.");
+        }
+        this.widths = widths.clone();
+        Arrays.sort(this.widths);
+        this.quality = quality;
+        this.maxPixels = maxPixels;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("image-derivatives-"));
+        // Pas de cache disque pour les flux ImageIO : les images sont lues depuis un fichier, écrites en mémoire
+        ImageIO.setUseCache(false);
+
+        this.processing = Timer.builder("images.derivatives")
+                .description("Durée du calcul des déclinaisons et de l'aperçu d'une image")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("images.derivatives.skipped")
+                .description("Images conservées sans déclinaisons (pool saturé, image trop grande ou illisible)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return Largeurs des déclinaisons, par ordre croissant.
+     */
+    public int[] getWidths() {
+        return widths.clone();
+    }
+
+    /**
+     * Calcule les déclinaisons d'une image sur le pool dédié. Le fichier doit rester disponible jusqu'à
+     * la fin du futur.
+     *
+     * @param source Fichier image reçu.
+     * @return Les déclinaisons, ou {@link Derivatives#NONE} si l'image n'a pu être traitée ; le futur
+     *         n'échoue jamais.
+     */
+    public CompletableFuture<Derivatives> generate(Path source) {
+        try {
+            return CompletableFuture.supplyAsync(() -> process(source), workers)
+                    .exceptionally(error -> {
+                        logger.log(Level.WARNING, "Calcul des déclinaisons de l'image " + source.getFileName()
+                                + " impossible", error);
+                        skipped.increment();
+                        return Derivatives.NONE;
+                    });
+        } catch (RejectedExecutionException e) {
+            skipped.increment();
+            return CompletableFuture.completedFuture(Derivatives.NONE);
+        }
+    }
+
+    private Derivatives process(Path source) {
+        long start = System.nanoTime();
+        try {
+            BufferedImage image = decode(source, ExifOrientation.read(source));
+            if (image == null) {
+                skipped.increment();
+                return Derivatives.NONE;
+            }
+
+            // Du plus grand au plus petit : chaque déclinaison est réduite depuis la précédente (au plus de moitié)
+            List<Rendition> renditions = new ArrayList<>(widths.length);
+            BufferedImage current = image;
+            for (int i = widths.length - 1; i >= 0; i--) {
+                if (widths[i] >= image.getWidth()) {
+                    continue;
+                }
+                current = downscale(current, widths[i]);
+                renditions.add(new Rendition(widths[i], encodeJpeg(current)));
+            }
+            Collections.reverse(renditions);
+
+            String placeholder = Blurhash.encode(downscale(current, Math.min(PLACEHOLDER_WIDTH, current.getWidth())),
+                    PLACEHOLDER_COMPONENTS_X, PLACEHOLDER_COMPONENTS_Y);
+            return new Derivatives(renditions, placeholder);
+        } catch (IOException | RuntimeException | OutOfMemoryError e) {
+            // Y compris un manque de mémoire : les déclinaisons sont facultatives, l'image reste enregistrée
+            logger.log(Level.WARNING, "Calcul des déclinaisons de l'image " + source.getFileName() + " impossible", e);
+            skipped.increment();
+            return Derivatives.NONE;
+        } finally {
+            processing.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Décode l'image sous-échantillonnée, son plus grand côté au plus près de la plus grande largeur produite,
+     * puis la redresse et la convertit en RGB opaque (fond blanc pour la transparence) : les métadonnées ne
+     * sont pas conservées. Les dimensions sont lues dans l'en-tête, avant tout décodage.
+     *
+     * @return L'image redressée, ou null si aucun décodeur ne reconnaît le fichier ou si elle dépasse le
+     *         budget de pixels.
+     */
+    private BufferedImage decode(Path source, int orientation) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int storedWidth = reader.getWidth(0);
+                int storedHeight = reader.getHeight(0);
+                if ((long) storedWidth * storedHeight > maxPixels) {
+                    logger.warning("Image " + source.getFileName() + " trop grande pour ses déclinaisons : "
+                            + storedWidth + " x " + storedHeight + " pixels.");
+                    return null;
+                }
+
+                // Sur le plus grand côté : une image très étroite et très haute reste bornée en mémoire
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(storedWidth, storedHeight) / widths[widths.length - 1]);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                int width = decoded.getWidth();
+                int height = decoded.getHeight();
+                boolean swap = orientation >= 5;
+                BufferedImage oriented = new BufferedImage(swap ? height : width, swap ? width : height,
+                        BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = oriented.createGraphics();
+                try {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, oriented.getWidth(), oriented.getHeight());
+                    graphics.drawImage(decoded, ExifOrientation.transform(orientation, width, height), null);
+                } finally {
+                    graphics.dispose();
+                }
+                return oriented;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage downscale(BufferedImage image, int width) {
+        int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    // JPEG progressif : la carte s'affiche grossièrement dès les premiers octets
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(buffer)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return buffer.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * Déclinaison JPEG d'une image, à une largeur donnée.
+     */
+    public static final class Rendition {
+
+        private final int width;
+        private final byte[] jpeg;
+
+        Rendition(int width, byte[] jpeg) {
+            this.width = width;
+            this.jpeg = jpeg;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public byte[] getJpeg() {
+            return jpeg;
+        }
+    }
+
+    /**
+     * Déclinaisons d'une image, par largeur croissante, et aperçu flou.
+     */
+    public static final class Derivatives {
+
+        /**
+         * Image non traitée : aucune déclinaison, pas d'aperçu.
+         */
+        public static final Derivatives NONE = new Derivatives(Collections.emptyList(), null);
+
+        private final List<Rendition> renditions;
+        private final String placeholder;
+
+        Derivatives(List<Rendition> renditions, String placeholder) {
+            this.renditions = renditions;
+            this.placeholder = placeholder;
+        }
+
+        public List<Rendition> getRenditions() {
+            return renditions;
+        }
+
+        /**
+         * @return L'aperçu BlurHash, ou null.
+         */
+        public String getPlaceholder() {
+            return placeholder;
+        }
+    }
+}
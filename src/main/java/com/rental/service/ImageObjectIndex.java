@@ -0,0 +1,176 @@
+package com.rental.service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rental.entity.ImageObject;
+import com.rental.repository.ImageObjectRepository;
+import com.rental.util.Srcset;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Index des images stockées, par empreinte SHA-256 de leur contenu : un envoi dont le contenu est déjà
+ * stocké réutilise l'objet S3 existant sans le renvoyer, et deux envois simultanés du même contenu sur
+ * cette instance partagent le même envoi.
+ * <p>
+ * La table image_objects est l'arbitre, partagé entre les instances : chaque envoi y réserve d'abord
+ * l'empreinte (ligne sans référence, datée de la réservation), puis la location enregistrée la référence.
+ * Aucune image n'est supprimée au fil des envois : seul le balayage ({@link #sweep}) supprime, par une
+ * suppression conditionnelle en base, les images sans référence dont la réservation a expiré. Une
+ * image réutilisée renouvelle sa réservation, et une ligne supprimée puis recréée reçoit un nouveau
+ * préfixe de clés : le balayage ne peut donc pas effacer les objets d'un envoi en cours.
+ * <p>
+ * En mémoire, seules les images récemment utilisées sont gardées (cache borné, simple raccourci vers la
+ * base) ; les envois en cours sont indexés sous un verrou choisi parmi un ensemble fixe (verrous par bandes).
+ */
+@Service
+public class ImageObjectIndex {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ImageObjectRepository imageObjectRepository;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    private final Cache<String, StoredImage> images;
+    // Envois en cours sur cette instance, modifiés sous le verrou de l'empreinte
+    private final Map<String, CompletableFuture<Optional<StoredImage>>> uploads = new ConcurrentHashMap<>();
+
+    public ImageObjectIndex(ImageObjectRepository imageObjectRepository,
+                            @Value("${images.objects.cache-size:10000}") long cacheSize,
+                            MeterRegistry meterRegistry) {
+        this.imageObjectRepository = imageObjectRepository;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.images = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, images, "images.objects");
+        Gauge.builder("images.objects.uploading", uploads, Map::size)
+                .description("Images en cours d'envoi sur cette instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Réserve l'image de contenu donné : retourne l'image déjà stockée, rejoint l'envoi en cours du même
+     * contenu sur cette instance, ou démarre un nouvel envoi. La réservation protège l'image du balayage
+     * jusqu'à son expiration ; elle n'a pas à être rendue.
+     *
+     * @param hash     Empreinte SHA-256 du contenu.
+     * @param prefix   Préfixe des clés S3, si l'empreinte n'est pas encore réservée.
+     * @param url      URL de l'original, si l'empreinte n'est pas encore réservée.
+     * @param uploader Démarre l'envoi vers le préfixe et l'URL de la ligne réservée, appelé de façon
+     *                 synchrone et au plus une fois.
+     * @return L'image stockée, ou vide si le contenu n'a pu être envoyé.
+     */
+    public CompletableFuture<Optional<StoredImage>> acquire(String hash, String prefix, String url,
+            Function<ImageObject, CompletableFuture<Optional<StoredImage>>> uploader) {
+        Date now = new Date();
+        StoredImage known = images.getIfPresent(hash);
+        if (known != null && imageObjectRepository.renew(hash, known.getUrl(), now) == 1) {
+            return CompletableFuture.completedFuture(Optional.of(known));
+        }
+
+        imageObjectRepository.reserve(hash, prefix, url, now);
+        ImageObject object = imageObjectRepository.findById(hash)
+                .orElseThrow(() -> new IllegalStateException("Image " + hash + " supprimée pendant sa réservation."));
+        if (object.getStoredAt() != null) {
+            StoredImage stored = new StoredImage(hash, object.getUrl(), Srcset.parse(object.getVariants()),
+                    object.getPlaceholder());
+            images.put(hash, stored);
+            return CompletableFuture.completedFuture(Optional.of(stored));
+        }
+
+        CompletableFuture<Optional<StoredImage>> image;
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            image = uploads.get(hash);
+            if (image == null) {
+                CompletableFuture<Optional<StoredImage>> upload;
+                try {
+                    upload = uploader.apply(object);
+                } catch (RuntimeException e) {
+                    upload = CompletableFuture.failedFuture(e);
+                }
+                CompletableFuture<Optional<StoredImage>> started = upload;
+                uploads.put(hash, started);
+                started.whenComplete((stored, error) -> uploaded(hash, started, stored));
+                image = started;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return image;
+    }
+
+    /**
+     * Enregistre une référence à l'image. Doit être appelée dans la transaction qui enregistre la location.
+     *
+     * @param image Image obtenue par {@link #acquire(String, String, String, Function)}.
+     * @throws IllegalStateException si l'image a été balayée depuis sa réservation.
+     */
+    public void retain(StoredImage image) {
+        if (imageObjectRepository.retain(image.getHash(), image.getUrl(), image.getSrcset(),
+                image.getPlaceholder(), new Date()) != 1) {
+            images.invalidate(image.getHash());
+            throw new IllegalStateException("Image " + image.getHash() + " supprimée avant l'enregistrement de sa location.");
+        }
+    }
+
+    /**
+     * Supprime les images sans référence dont la réservation a expiré. Chaque ligne est supprimée sous
+     * condition en base avant ses objets : une seule instance les supprime, et jamais une image
+     * référencée ou réservée depuis.
+     *
+     * @param cutoff  Les images réservées avant cette date sont supprimées.
+     * @param limit   Nombre maximal d'images examinées.
+     * @param deleter Supprime les objets S3 de l'image ; le futur ne doit pas échouer.
+     * @return Le nombre d'images supprimées.
+     */
+    public int sweep(Date cutoff, int limit, Function<ImageObject, CompletableFuture<Void>> deleter) {
+        int deleted = 0;
+        for (ImageObject object : imageObjectRepository.findExpired(cutoff, PageRequest.of(0, limit))) {
+            if (imageObjectRepository.deleteExpired(object.getHash(), object.getUrl(), cutoff) == 1) {
+                images.asMap().computeIfPresent(object.getHash(),
+                        (hash, known) -> known.getUrl().equals(object.getUrl()) ? null : known);
+                deleter.apply(object);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private void uploaded(String hash, CompletableFuture<Optional<StoredImage>> upload, Optional<StoredImage> stored) {
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            uploads.remove(hash, upload);
+            if (stored != null && stored.isPresent()) {
+                images.put(hash, stored.get());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(String hash) {
+        return locks[(hash.hashCode() & Integer.MAX_VALUE) % locks.length];
+    }
+}
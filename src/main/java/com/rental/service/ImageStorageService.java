@@ -1,60 +1,593 @@
 package com.rental.service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.rental.entity.ImageObject;
+import com.rental.util.ByteBufferInputStream;
+import com.rental.util.DirectBufferPool;
+import com.rental.util.JpegMetadata;
+import com.rental.util.Srcset;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
 
+/**
+ * Stockage des images dans S3.
+ * Le fichier reçu n'est jamais copié en entier sur le tas : en deçà du seuil, il est envoyé en flux
+ * par le client S3 asynchrone ; au-delà, il est découpé en parties envoyées en parallèle, chacune lue
+ * dans un tampon direct réutilisable. Le nombre de tampons borne la mémoire engagée par tous les envois.
+ * Les objets sont nommés d'après l'empreinte SHA-256 de leur contenu : leur contenu ne change jamais,
+ * et une image déjà stockée n'est pas renvoyée (voir {@link ImageObjectIndex}). Les images qu'aucune
+ * location ne référence ne sont jamais supprimées au fil des envois, mais par un balayage périodique.
+ */
 @Service
 public class ImageStorageService {
 
+    private static final Logger logger = Logger.getLogger(ImageStorageService.class.getName());
+
+    // Taille minimale d'une partie imposée par S3 (sauf pour la dernière)
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    // Clés adressées par le contenu : mises en cache sans limite par les navigateurs et les CDN
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    // Images examinées par requête de balayage
+    private static final int SWEEP_BATCH_SIZE = 100;
+
     private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ImageObjectIndex imageObjectIndex;
+    private final ThreadPoolExecutor multipartDrivers;
     private final String bucketName = "chatop-bucket-2025";
+    private final long multipartThreshold;
+    private final DirectBufferPool partBuffers;
+    private final ExecutorService partUploader;
+    private final Duration reservationTimeout;
+    private final ScheduledExecutorService sweeper;
+
+    private final AtomicLong bytesInFlight = new AtomicLong();
+    private final Counter uploadedBytes;
+    private final Counter deletedImages;
+    private final Counter deduplicatedImages;
+    private final DistributionSummary throughput;
+    private final Timer singleUploads;
+    private final Timer multipartUploads;
 
-    public ImageStorageService(S3Client s3Client) {
+    public ImageStorageService(S3Client s3Client, S3AsyncClient s3AsyncClient,
+                               ImageDerivativeService imageDerivativeService,
+                               ImageObjectIndex imageObjectIndex,
+                               @Value("${images.upload.multipart-threshold:16MB}") DataSize multipartThreshold,
+                               @Value("${images.upload.part-size:8MB}") DataSize partSize,
+                               @Value("${images.upload.buffers:8}") int buffers,
+                               @Value("${images.upload.threads:4}") int threads,
+                               @Value("${images.upload.multipart-drivers:2}") int multipartDrivers,
+                               @Value("${images.upload.multipart-queue-capacity:16}") int multipartQueueCapacity,
+                               @Value("${images.objects.reservation-timeout:1h}") Duration reservationTimeout,
+                               @Value("${images.objects.sweep-interval:15m}") Duration sweepInterval,
+                               MeterRegistry meterRegistry) {
+        if (partSize.toBytes() < MIN_PART_SIZE || partSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("La taille des parties doit être comprise entre 5 Mo et 2 Go.");
+        }
         this.s3Client = s3Client;
+        this.s3AsyncClient = s3AsyncClient;
+        this.imageDerivativeService = imageDerivativeService;
+        this.imageObjectIndex = imageObjectIndex;
+        this.multipartThreshold = Math.max(multipartThreshold.toBytes(), partSize.toBytes());
+        this.partBuffers = new DirectBufferPool((int) partSize.toBytes(), buffers);
+        this.partUploader = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("image-upload-"));
+        // Pilotes des envois en plusieurs parties : ils attendent S3 partie par partie, hors de l'exécuteur
+        // des locations dont les enregistrements ne doivent pas dépendre de la latence de S3
+        this.multipartDrivers = new ThreadPoolExecutor(multipartDrivers, multipartDrivers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(multipartQueueCapacity), new CustomizableThreadFactory("image-upload-driver-"));
+        this.reservationTimeout = reservationTimeout;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("image-sweep-"));
+        this.sweeper.scheduleWithFixedDelay(this::sweep,
+                sweepInterval.toMillis(), sweepInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        Gauge.builder("images.upload.bytes.in-flight", bytesInFlight, AtomicLong::get)
+                .description("Octets d'images en cours d'envoi vers S3")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("images.upload.buffers", partBuffers, DirectBufferPool::getAllocated)
+                .description("Tampons directs alloués pour les envois en plusieurs parties")
+                .register(meterRegistry);
+        this.uploadedBytes = Counter.builder("images.upload.bytes")
+                .description("Octets d'images envoyés vers S3")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.deletedImages = Counter.builder("images.objects.swept")
+                .description("Images supprimées car aucune location ne les référence depuis leur réservation")
+                .register(meterRegistry);
+        this.deduplicatedImages = Counter.builder("images.upload.deduplicated")
+                .description("Images reçues dont le contenu était déjà stocké ou en cours d'envoi")
+                .register(meterRegistry);
+        this.throughput = DistributionSummary.builder("images.upload.throughput")
+                .description("Débit de chaque envoi d'image vers S3")
+                .baseUnit("bytes/s")
+                .register(meterRegistry);
+        this.singleUploads = Timer.builder("images.upload")
+                .description("Durée d'un envoi d'image vers S3")
+                .tag("mode", "single")
+                .register(meterRegistry);
+        this.multipartUploads = Timer.builder("images.upload")
+                .description("Durée d'un envoi d'image vers S3")
+                .tag("mode", "multipart")
+                .register(meterRegistry);
     }
 
     /**
-     * Enregistre une image dans S3 et retourne son URL.
+     * Enregistre une image dans S3, avec ses déclinaisons, sans bloquer le thread appelant pendant l'envoi.
+     * Le fichier reçu est d'abord copié dans un fichier temporaire, indépendant de la requête, sans ses
+     * métadonnées JPEG (voir {@link JpegMetadata}), en calculant l'empreinte SHA-256 du contenu copié : les
+     * objets S3 sont nommés d'après cette empreinte, et un contenu déjà stocké (ou en cours d'envoi) est
+     * réutilisé sans nouvel envoi.
+     * <p>
+     * Sinon, le fichier est envoyé en flux par le client asynchrone ; au-delà du seuil, l'envoi en plusieurs
+     * parties est confié à l'exécuteur des tâches asynchrones. En parallèle, les déclinaisons sont calculées
+     * depuis le même fichier puis envoyées ; elles sont facultatives : en cas d'échec, l'image est conservée sans.
+     * <p>
+     * L'image retournée est réservée : elle doit être référencée par {@link #retainImage(StoredImage)} dans la
+     * transaction qui enregistre la location. Sans référence, elle est supprimée par le balayage périodique
+     * une fois sa réservation expirée.
      *
      * @param file Fichier à stocker.
-     * @return URL de l'image stockée.
+     * @return Image stockée, ou vide si le fichier n'a pu être lu ; une erreur S3 sur l'original fait
+     *         échouer le futur.
      */
-    public Optional<String> saveImage(MultipartFile file) {
-        String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-        String pictureURL = null;
+    public CompletableFuture<Optional<StoredImage>> saveImage(MultipartFile file) {
+        String originalName = file.getOriginalFilename();
+        // Détecter le Content-Type basé sur l'extension
+        String contentType = guessContentType(originalName);
+
+        Path tempFile = null;
+        String hash;
+        long size;
+        try {
+            tempFile = Files.createTempFile("rental-image-", ".upload");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // Les métadonnées (dont la position GPS) sont retirées à la copie : l'original est public
+            try (InputStream input = file.getInputStream();
+                 OutputStream output = new DigestOutputStream(Files.newOutputStream(tempFile), digest)) {
+                JpegMetadata.strip(input, output);
+            }
+            hash = HexFormat.of().formatHex(digest.digest());
+            size = Files.size(tempFile);
+        } catch (IOException e) {
+            // Erreur lors de la lecture de l'image reçue
+            logger.log(Level.WARNING, "Lecture de l'image " + originalName + " impossible", e);
+            deleteTempFile(tempFile);
+            return CompletableFuture.completedFuture(Optional.empty());
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 est fourni par toute JVM
+            deleteTempFile(tempFile);
+            throw new IllegalStateException(e);
+        }
 
+        Path source = tempFile;
+        // Préfixe propre à la réservation : une image balayée puis renvoyée ne réutilise pas les clés supprimées
+        String prefix = hash + "-" + Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+        AtomicBoolean uploading = new AtomicBoolean();
+        CompletableFuture<Optional<StoredImage>> image;
+        try {
+            image = imageObjectIndex.acquire(hash, prefix, urlOf(prefix + extensionOf(originalName)), object -> {
+                uploading.set(true);
+                return store(hash, object.getObjectPrefix(), keyOf(object.getUrl()), contentType, source, size);
+            });
+        } catch (RuntimeException e) {
+            // Réservation impossible en base : l'envoi n'a pas démarré
+            deleteTempFile(source);
+            throw e;
+        }
+        if (!uploading.get()) {
+            deleteTempFile(source);
+            deduplicatedImages.increment();
+        }
+        return image;
+    }
+
+    /**
+     * Enregistre la référence d'une location à l'image. Doit être appelée dans la transaction qui
+     * enregistre la location.
+     *
+     * @param image Image retournée par {@link #saveImage(MultipartFile)}.
+     */
+    public void retainImage(StoredImage image) {
+        imageObjectIndex.retain(image);
+    }
+
+    /**
+     * Supprime les images qu'aucune location ne référence et dont la réservation a expiré : envois
+     * échoués ou locations abandonnées, sur n'importe quelle instance.
+     */
+    private void sweep() {
         try {
-            // Détecter le Content-Type basé sur l'extension
-            String contentType = guessContentType(fileName);
+            Date cutoff = new Date(System.currentTimeMillis() - reservationTimeout.toMillis());
+            int deleted;
+            do {
+                deleted = imageObjectIndex.sweep(cutoff, SWEEP_BATCH_SIZE, this::deleteObjects);
+                deletedImages.increment(deleted);
+            } while (deleted == SWEEP_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            // Le prochain balayage reprendra les images restantes
+            logger.log(Level.WARNING, "Balayage des images sans référence impossible", e);
+        }
+    }
+
+    // Envoi de l'original et des déclinaisons depuis le fichier temporaire, supprimé une fois lu
+    private CompletableFuture<Optional<StoredImage>> store(String hash, String prefix, String key, String contentType,
+                                                           Path source, long size) {
+        CompletableFuture<ImageDerivativeService.Derivatives> derivatives = imageDerivativeService.generate(source);
+        boolean multipart = size >= multipartThreshold;
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> upload = startUpload(key, contentType, source, size, multipart);
+        // Le fichier temporaire sert à la fois à l'envoi de l'original et au calcul des déclinaisons
+        CompletableFuture.allOf(upload, derivatives).whenComplete((ignored, error) -> deleteTempFile(source));
+
+        CompletableFuture<Optional<String>> original = upload.handle((stored, error) -> {
+            long nanos = System.nanoTime() - start;
+            Timer timer = multipart ? multipartUploads : singleUploads;
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                if (cause instanceof UncheckedIOException) {
+                    // Erreur lors de la lecture du fichier temporaire
+                    logger.log(Level.WARNING, "Envoi de l'image " + key + " impossible", cause);
+                    return Optional.empty();
+                }
+                throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+            }
+            throughput.record(size * 1_000_000_000.0 / Math.max(1L, nanos));
+            return stored ? Optional.of(urlOf(key)) : Optional.empty();
+        });
+        CompletableFuture<SortedMap<Integer, String>> variants = derivatives.thenCompose(d -> uploadRenditions(prefix, d));
+
+        // Sans original, les déclinaisons envoyées restent sans référence jusqu'au balayage : une autre
+        // instance peut envoyer le même contenu vers les mêmes clés au même moment
+        return original.thenCombine(variants,
+                (url, variantURLs) -> url.map(u -> new StoredImage(hash, u, variantURLs,
+                        derivatives.join().getPlaceholder())));
+    }
+
+    // Supprime l'original et les déclinaisons d'une image balayée, y compris celles d'un envoi inachevé
+    private CompletableFuture<Void> deleteObjects(ImageObject object) {
+        Set<String> urls = new LinkedHashSet<>();
+        urls.add(object.getUrl());
+        urls.addAll(Srcset.parse(object.getVariants()).values());
+        for (int width : imageDerivativeService.getWidths()) {
+            urls.add(urlOf(renditionKey(object.getObjectPrefix(), width)));
+        }
+        List<CompletableFuture<Void>> deletions = new ArrayList<>();
+        for (String url : urls) {
+            deletions.add(deleteObject(url));
+        }
+        return CompletableFuture.allOf(deletions.toArray(new CompletableFuture<?>[0]));
+    }
+
+    // Le futur n'échoue jamais : un échec est seulement journalisé
+    private CompletableFuture<Void> deleteObject(String url) {
+        String key = keyOf(url);
+        if (key == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return s3AsyncClient.deleteObject(DeleteObjectRequest.builder().bucket(bucketName).key(key).build())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        logger.log(Level.WARNING, "Suppression de l'image orpheline " + key + " impossible", error);
+                    }
+                    return null;
+                });
+    }
+
+    private String urlOf(String key) {
+        return "https://" + bucketName + ".s3.amazonaws.com/" + key;
+    }
+
+    // Clé S3 d'une URL du bucket, ou null
+    private String keyOf(String url) {
+        String base = urlOf("");
+        return url != null && url.startsWith(base) ? url.substring(base.length()) : null;
+    }
+
+    private static String renditionKey(String prefix, int width) {
+        return prefix + "_w" + width + ".jpg";
+    }
+
+    /**
+     * Envoie les déclinaisons en parallèle, nommées d'après le préfixe de l'original et leur largeur.
+     *
+     * @return URL des déclinaisons par largeur, ou vide si l'une d'elles n'a pu être envoyée.
+     */
+    private CompletableFuture<SortedMap<Integer, String>> uploadRenditions(String prefix,
+                                                                          ImageDerivativeService.Derivatives derivatives) {
+        List<ImageDerivativeService.Rendition> renditions = derivatives.getRenditions();
+        if (renditions.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptySortedMap());
+        }
 
-            // Construire la requête de mise en ligne
+        SortedMap<Integer, String> urls = new TreeMap<>();
+        CompletableFuture<?>[] uploads = new CompletableFuture<?>[renditions.size()];
+        for (int i = 0; i < uploads.length; i++) {
+            ImageDerivativeService.Rendition rendition = renditions.get(i);
+            String key = renditionKey(prefix, rendition.getWidth());
             PutObjectRequest request = PutObjectRequest.builder()
                     .bucket(bucketName)
-                    .key(fileName)
-                    .contentType(contentType)
+                    .key(key)
+                    .contentType("image/jpeg")
+                    .contentLength((long) rendition.getJpeg().length)
+                    .cacheControl(IMMUTABLE)
                     .build();
+            uploads[i] = s3AsyncClient.putObject(request, AsyncRequestBody.fromBytes(rendition.getJpeg()));
+            urls.put(rendition.getWidth(), urlOf(key));
+        }
 
-            // Envoyer la requête à S3
-            PutObjectResponse response = s3Client.putObject(request, RequestBody.fromBytes(file.getBytes()));
-            if (response != null) {
-                pictureURL = "https://" + bucketName + ".s3.amazonaws.com/" + fileName;
-                return Optional.of(pictureURL);
+        return CompletableFuture.allOf(uploads).handle((ignored, error) -> {
+            if (error == null) {
+                for (ImageDerivativeService.Rendition rendition : renditions) {
+                    uploadedBytes.increment(rendition.getJpeg().length);
+                }
+                return urls;
             }
+            // Les déclinaisons déjà envoyées seront supprimées avec l'image si elle n'est pas référencée
+            logger.log(Level.WARNING, "Envoi des déclinaisons de l'image " + prefix + " impossible", error);
+            return Collections.emptySortedMap();
+        });
+    }
+
+    // Une erreur au démarrage de l'envoi (pilotes saturés) fait échouer le futur : le fichier temporaire
+    // est supprimé comme pour tout autre échec
+    private CompletableFuture<Boolean> startUpload(String key, String contentType, Path source, long size,
+                                                   boolean multipart) {
+        try {
+            return multipart
+                    ? CompletableFuture.supplyAsync(() -> uploadMultipart(key, contentType, source, size), multipartDrivers)
+                    : uploadSingle(key, contentType, source, size);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Trop d'envois d'images en cours, veuillez réessayer.", e));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Envoi en une requête, lu en flux depuis le fichier temporaire par le client asynchrone
+    private CompletableFuture<Boolean> uploadSingle(String key, String contentType, Path file, long size) {
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(size)
+                .cacheControl(IMMUTABLE)
+                .build();
+
+        bytesInFlight.addAndGet(size);
+        return s3AsyncClient.putObject(request, AsyncRequestBody.fromFile(file)).handle((response, error) -> {
+            bytesInFlight.addAndGet(-size);
+            if (error != null) {
+                throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+            }
+            uploadedBytes.increment(size);
+            return response != null;
+        });
+    }
+
+    /**
+     * Envoi en plusieurs parties, exécuté par l'exécuteur des tâches asynchrones : ce thread remplit
+     * les tampons dans l'ordre depuis le fichier temporaire, le pool des parties les envoie.
+     * En cas d'échec, les parties en cours sont attendues puis l'envoi est annulé côté S3, pour ne pas
+     * laisser de parties facturées sans objet.
+     */
+    private boolean uploadMultipart(String key, String contentType, Path file, long size) {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .cacheControl(IMMUTABLE)
+                .build()).uploadId();
+
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<CompletedPart>> parts = new ArrayList<>();
+        try (ReadableByteChannel channel = Files.newByteChannel(file)) {
+            int partNumber = 1;
+            for (long offset = 0; offset < size && !failed.get(); offset += partBuffers.getBufferSize(), partNumber++) {
+                int length = (int) Math.min(partBuffers.getBufferSize(), size - offset);
+                ByteBuffer buffer = partBuffers.acquire();
+                try {
+                    fill(channel, buffer, length);
+                } catch (IOException | RuntimeException e) {
+                    partBuffers.release(buffer);
+                    throw e;
+                }
+                bytesInFlight.addAndGet(length);
+                int number = partNumber;
+                parts.add(partUploader.submit(() -> uploadPart(key, uploadId, number, buffer, failed)));
+            }
+
+            // Les parties abandonnées après un échec valent null : get() lève l'erreur de la partie en échec
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (Future<CompletedPart> part : parts) {
+                CompletedPart done = part.get();
+                if (done != null) {
+                    completed.add(done);
+                }
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                    .build());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(key, uploadId, failed, parts);
+            throw new UncheckedIOException(new InterruptedIOException("Envoi de l'image interrompu."));
+        } catch (ExecutionException e) {
+            abort(key, uploadId, failed, parts);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new UncheckedIOException(new IOException("Envoi d'une partie de l'image impossible.", e.getCause()));
         } catch (IOException e) {
-            // Erreur lors de l'upload de l'image
-            e.printStackTrace();
+            abort(key, uploadId, failed, parts);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            abort(key, uploadId, failed, parts);
+            throw e;
         }
+    }
 
-        return Optional.empty();
+    // Exécutée par le pool ; le tampon est toujours rendu, même si l'envoi est abandonné
+    private CompletedPart uploadPart(String key, String uploadId, int partNumber, ByteBuffer buffer,
+                                     AtomicBoolean failed) {
+        int length = buffer.remaining();
+        try {
+            if (failed.get()) {
+                return null;
+            }
+            UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder()
+                            .bucket(bucketName)
+                            .key(key)
+                            .uploadId(uploadId)
+                            .partNumber(partNumber)
+                            .contentLength((long) length)
+                            .build(),
+                    RequestBody.fromInputStream(new ByteBufferInputStream(buffer), length));
+            uploadedBytes.increment(length);
+            return CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build();
+        } catch (RuntimeException e) {
+            failed.set(true);
+            throw e;
+        } finally {
+            bytesInFlight.addAndGet(-length);
+            partBuffers.release(buffer);
+        }
+    }
+
+    private void abort(String key, String uploadId, AtomicBoolean failed, List<Future<CompletedPart>> parts) {
+        failed.set(true);
+        // Une partie encore en cours après l'annulation serait conservée (et facturée) par S3
+        for (Future<CompletedPart> part : parts) {
+            try {
+                part.get();
+            } catch (ExecutionException e) {
+                // Échec déjà signalé par la première partie en erreur
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Annulation de l'envoi en plusieurs parties " + uploadId + " impossible", e);
+        }
+    }
+
+    private static void deleteTempFile(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warning("Suppression du fichier temporaire " + file + " impossible : " + e.getMessage());
+        }
+    }
+
+    // Lit exactement length octets du fichier dans le tampon, prêt à être lu
+    private static void fill(ReadableByteChannel channel, ByteBuffer buffer, int length) throws IOException {
+        buffer.limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Fichier plus court que la taille annoncée.");
+            }
+        }
+        buffer.flip();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        multipartDrivers.shutdown();
+        partUploader.shutdown();
+    }
+
+    // Extension du fichier reçu, conservée dans la clé de l'original (".jpg"), ou vide
+    private static String extensionOf(String fileName) {
+        if (fileName == null || !fileName.contains(".")) {
+            return "";
+        }
+        String extension = fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
+        return extension.matches("[a-z0-9]{1,8}") ? "." + extension : "";
     }
 
     /**
@@ -85,4 +618,4 @@ public class ImageStorageService {
                 return "application/octet-stream"; // Content-Type par défaut pour les extensions non supportées
         }
     }
-}
\ No newline at end of file
+}
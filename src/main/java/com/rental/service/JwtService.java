@@ -1,69 +1,249 @@
 package com.rental.service;
 
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.rental.entity.Role;
+import com.rental.security.JwtKeyRing;
+import com.rental.security.TokenType;
+import com.rental.security.VerifiedToken;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
-import java.util.function.Function;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
-    private final Key signingKey;
-    private final long jwtExpirationTime;
+    // Claims portant l'identité de l'utilisateur, pour authentifier sans accès à la base
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+    // Type du token (accès ou rafraîchissement) et époque de révocation de l'utilisateur
+    private static final String TYPE_CLAIM = "typ";
+    private static final String EPOCH_CLAIM = "ep";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(JwtService::newSha256Digest);
 
-    // Constructeur pour initialiser la clé de signature et le temps d'expiration du JWT
+    private final JwtKeyRing keyRing;
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+    private final JwtParser jwtParser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    // Constructeur pour initialiser le trousseau de clés, le parser et le cache des tokens vérifiés.
+    // JWT_EXPIRATION (en millisecondes) fixe désormais la durée de vie des tokens de rafraîchissement.
     public JwtService(
-            @Value("${JWT_SECRET}") String secretKeyBase64,
-            @Value("${JWT_EXPIRATION}") long jwtExpirationTime) {
+            JwtKeyRing keyRing,
+            @Value("${JWT_EXPIRATION}") long refreshTokenTtlMillis,
+            @Value("${jwt.access-token.ttl:15m}") Duration accessTokenTtl,
+            @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+            MeterRegistry meterRegistry) {
 
-        if (secretKeyBase64 == null || secretKeyBase64.isEmpty()) {
-            throw new IllegalArgumentException("La clé secrète JWT doit être définie.");
-        }
-        this.signingKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKeyBase64));
-        this.jwtExpirationTime = jwtExpirationTime;
+        this.keyRing = keyRing;
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = Duration.ofMillis(refreshTokenTtlMillis);
+        // Le parser est immuable et thread-safe : il est construit une seule fois.
+        // La clé de vérification est résolue par "kid" dans le trousseau, où elle est déjà décodée.
+        this.jwtParser = Jwts.parserBuilder().setSigningKeyResolver(keyRing).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new VerifiedTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+    }
+
+    // Génère un token d'accès de courte durée portant l'email (sujet), l'ID, le rôle et l'époque de l'utilisateur
+    public String generateAccessToken(Long userId, String email, Role role, int epoch) {
+        return buildToken(userId, email, role, epoch, TokenType.ACCESS, accessTokenTtl)
+                .compact();
     }
 
-    // Génère un token JWT pour un sujet donné
-    public String generateToken(String subject) {
-        return Jwts.builder()
-                .setSubject(subject)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationTime))
-                .signWith(signingKey, SignatureAlgorithm.HS256)
+    // Génère un token de rafraîchissement à usage unique, identifié par un jti aléatoire
+    public String generateRefreshToken(Long userId, String email, Role role, int epoch) {
+        return buildToken(userId, email, role, epoch, TokenType.REFRESH, refreshTokenTtl)
+                .setId(UUID.randomUUID().toString())
                 .compact();
     }
 
+    // Durée de vie des tokens de rafraîchissement
+    public Duration getRefreshTokenTtl() {
+        return refreshTokenTtl;
+    }
+
+    /**
+     * Recharge le trousseau de clés sans redémarrage. Les tokens déjà vérifiés sont retirés du cache
+     * afin qu'une clé supprimée du trousseau ne soit plus acceptée.
+     *
+     * @return Le trousseau rechargé.
+     */
+    public JwtKeyRing.KeySet reloadKeys() {
+        JwtKeyRing.KeySet keySet = keyRing.reload();
+        verifiedTokens.invalidateAll();
+        return keySet;
+    }
+
+    private JwtBuilder buildToken(Long userId, String email, Role role, int epoch, TokenType type, Duration ttl) {
+        JwtKeyRing.JwtKey key = keyRing.getSigningKey();
+        long now = System.currentTimeMillis();
+        JwtBuilder builder = Jwts.builder();
+        if (key.getKid() != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, key.getKid());
+        }
+        return builder
+                .setSubject(email)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLE_CLAIM, role.name())
+                .claim(TYPE_CLAIM, type.name())
+                .claim(EPOCH_CLAIM, epoch)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ttl.toMillis()))
+                .signWith(key.getSigningKey(), key.getAlgorithm());
+    }
+
+    /**
+     * Vérifie la signature et l'expiration du token en une seule analyse.
+     * Les tokens déjà vérifiés sont servis depuis un cache borné, indexé par l'empreinte SHA-256
+     * du token, jusqu'à leur expiration.
+     *
+     * @param token JWT compact.
+     * @return Les claims vérifiées, ou vide si le token est invalide ou expiré.
+     */
+    public Optional<VerifiedToken> verifyToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String cacheKey = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null) {
+            if (!cached.isExpired(Instant.now())) {
+                return Optional.of(cached);
+            }
+            verifiedTokens.invalidate(cacheKey);
+            return Optional.empty();
+        }
+
+        VerifiedToken verified = parse(token);
+        if (verified == null) {
+            return Optional.empty();
+        }
+        // Un token sans date d'expiration n'est jamais mis en cache
+        if (verified.getExpiration() != null) {
+            verifiedTokens.put(cacheKey, verified);
+        }
+        return Optional.of(verified);
+    }
+
     // Extrait le nom d'utilisateur du token JWT
     public String extractUsername(String token) {
-        return getClaim(token, Claims::getSubject);
+        return verifyToken(token).map(VerifiedToken::getSubject).orElse(null);
     }
 
     // Valide le token JWT en vérifiant le nom d'utilisateur et l'expiration
     public boolean validateToken(String token, String userDetails) {
-        String username = extractUsername(token);
-        return (username != null && username.equals(userDetails) && !isTokenExpired(token));
+        return verifyToken(token)
+                .map(verified -> verified.getSubject() != null && verified.getSubject().equals(userDetails))
+                .orElse(false);
     }
 
-    // Vérifie si le token JWT est expiré
-    private boolean isTokenExpired(String token) {
-        Date expiration = getClaim(token, Claims::getExpiration);
-        return expiration != null && expiration.before(new Date());
+    // Analyse et vérifie le token JWT (signature et expiration)
+    private VerifiedToken parse(String token) {
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            return new VerifiedToken(claims.getSubject(), readUserId(claims), readRole(claims),
+                    toInstant(claims.getIssuedAt()), toInstant(claims.getExpiration()),
+                    readType(claims), claims.getId(), readEpoch(claims));
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Lit l'ID utilisateur (absent des tokens émis avant l'ajout de la claim)
+    private static Long readUserId(Claims claims) {
+        Object userId = claims.get(USER_ID_CLAIM);
+        return userId instanceof Number ? ((Number) userId).longValue() : null;
+    }
+
+    // Lit le rôle utilisateur (absent des tokens émis avant l'ajout de la claim)
+    private static Role readRole(Claims claims) {
+        String role = claims.get(ROLE_CLAIM, String.class);
+        return role != null ? Role.valueOf(role) : null;
+    }
+
+    // Lit le type du token (les tokens émis avant l'ajout de la claim sont des tokens d'accès)
+    private static TokenType readType(Claims claims) {
+        String type = claims.get(TYPE_CLAIM, String.class);
+        return type != null ? TokenType.valueOf(type) : TokenType.ACCESS;
+    }
+
+    // Lit l'époque de révocation (0 pour les tokens émis avant l'ajout de la claim)
+    private static int readEpoch(Claims claims) {
+        Object epoch = claims.get(EPOCH_CLAIM);
+        return epoch instanceof Number ? ((Number) epoch).intValue() : 0;
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+
+    // Calcule l'empreinte du token pour ne pas conserver les tokens bruts en mémoire
+    private static String digest(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        sha256.reset();
+        byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
     }
 
-    // Récupère une claim spécifique du token JWT
-    private <T> T getClaim(String token, Function<Claims, T> resolver) {
+    private static MessageDigest newSha256Digest() {
         try {
-            Claims claims = Jwts.parserBuilder().setSigningKey(signingKey).build().parseClaimsJws(token).getBody();
-            return resolver.apply(claims);
-        } catch (Exception e) {
-            return null;  // Ou lever une exception custom
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible sur cette JVM.", e);
+        }
+    }
+
+    /**
+     * Fait expirer chaque entrée du cache en même temps que le token qu'elle représente.
+     */
+    private static final class VerifiedTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            if (token.getExpiration() == null) {
+                return 0L;
+            }
+            long remainingMillis = token.getExpiration().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
-}
\ No newline at end of file
+}
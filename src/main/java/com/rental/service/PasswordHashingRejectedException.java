@@ -0,0 +1,24 @@
+package com.rental.service;
+
+/**
+ * Exception levée lorsque le pool de hachage des mots de passe est saturé.
+ * Traduite en réponse 503 avec un en-tête Retry-After.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(long retryAfterSeconds) {
+        super("Service d'authentification temporairement saturé.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return Délai conseillé avant une nouvelle tentative, en secondes.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,155 @@
+package com.rental.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Service exécutant le hachage et la vérification des mots de passe (BCrypt) sur un pool
+ * dédié, de taille fixe et à file bornée. Lorsque la file est pleine, la demande est refusée
+ * immédiatement afin que les pics de connexion ne monopolisent pas les threads Tomcat.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+    private final Counter rejectedCounter;
+    private final Map<String, AtomicInteger> inFlightByEndpoint = new ConcurrentHashMap<>();
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${auth.hashing.pool-size:0}") int poolSize,
+                                  @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${auth.hashing.timeout:5s}") Duration timeout,
+                                  @Value("${auth.hashing.retry-after:1s}") Duration retryAfter,
+                                  MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+        this.timeoutMillis = timeout.toMillis();
+        this.retryAfterSeconds = Math.max(1L, retryAfter.toSeconds());
+
+        // Par défaut, un thread par cœur : BCrypt est purement CPU
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.rejectedCounter = Counter.builder("auth.password.hashing.rejected")
+                .description("Demandes de hachage refusées faute de place dans la file")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.queue", executor, e -> e.getQueue().size())
+                .description("Demandes de hachage en attente d'un thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hache un mot de passe sur le pool dédié.
+     *
+     * @param rawPassword Mot de passe en clair.
+     * @param endpoint    Endpoint à l'origine de la demande (pour les métriques).
+     * @return Le hash du mot de passe.
+     * @throws PasswordHashingRejectedException si le pool est saturé.
+     */
+    public String encode(String rawPassword, String endpoint) {
+        return execute(endpoint, "encode", () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Vérifie un mot de passe sur le pool dédié.
+     *
+     * @param rawPassword     Mot de passe en clair.
+     * @param encodedPassword Hash stocké.
+     * @param endpoint        Endpoint à l'origine de la demande (pour les métriques).
+     * @return true si le mot de passe correspond.
+     * @throws PasswordHashingRejectedException si le pool est saturé.
+     */
+    public boolean matches(String rawPassword, String encodedPassword, String endpoint) {
+        return execute(endpoint, "matches", () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> T execute(String endpoint, String operation, Callable<T> task) {
+        AtomicInteger inFlight = inFlight(endpoint);
+        Timer latency = Timer.builder("auth.password.hashing")
+                .description("Durée d'un hachage ou d'une vérification BCrypt")
+                .tag("endpoint", endpoint)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        inFlight.incrementAndGet();
+        try {
+            Future<T> future;
+            try {
+                future = executor.submit(() -> latency.recordCallable(task));
+            } catch (RejectedExecutionException e) {
+                rejectedCounter.increment();
+                throw new PasswordHashingRejectedException(retryAfterSeconds);
+            }
+            return await(future);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    // Attend le résultat en bornant le temps d'attente du thread appelant
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new PasswordHashingRejectedException(retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hachage du mot de passe interrompu.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Échec du hachage du mot de passe.", cause);
+        }
+    }
+
+    // Jauge du nombre de demandes en cours (en file ou en calcul) par endpoint
+    private AtomicInteger inFlight(String endpoint) {
+        return inFlightByEndpoint.computeIfAbsent(endpoint, key -> {
+            AtomicInteger counter = new AtomicInteger();
+            Gauge.builder("auth.password.hashing.active", counter, AtomicInteger::get)
+                    .description("Demandes de hachage en cours par endpoint")
+                    .tag("endpoint", key)
+                    .register(meterRegistry);
+            return counter;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,96 @@
+package com.rental.service;
+
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.rental.repository.UserRepository;
+import com.rental.util.ConcurrentBloomFilter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Index en mémoire des emails enregistrés, sous forme de filtre de Bloom.
+ * Une réponse négative permet d'éviter les requêtes d'existence lors d'une inscription ;
+ * la contrainte d'unicité sur users.email reste l'arbitre final.
+ */
+@Service
+public class RegisteredEmailIndex {
+
+    private static final Logger logger = Logger.getLogger(RegisteredEmailIndex.class.getName());
+
+    private final UserRepository userRepository;
+    private final ConcurrentBloomFilter filter;
+
+    // Tant que le filtre n'est pas chargé, toute adresse est considérée comme possiblement enregistrée
+    private volatile boolean ready;
+
+    public RegisteredEmailIndex(UserRepository userRepository,
+                                @Value("${users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                                @Value("${users.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.filter = new ConcurrentBloomFilter(expectedInsertions, falsePositiveRate);
+
+        Gauge.builder("users.email-filter.false-positive-rate", filter,
+                        ConcurrentBloomFilter::expectedFalsePositiveProbability)
+                .description("Taux de faux positifs estimé du filtre des emails enregistrés")
+                .register(meterRegistry);
+        Gauge.builder("users.email-filter.memory", filter, ConcurrentBloomFilter::getMemoryBytes)
+                .description("Mémoire occupée par le filtre des emails enregistrés")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("users.email-filter.insertions", filter, ConcurrentBloomFilter::getInsertions)
+                .description("Nombre d'emails insérés dans le filtre")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Charge le filtre en parcourant la table des utilisateurs au démarrage.
+     * Les emails ajoutés pendant le chargement sont insérés directement dans le même filtre.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long count = 0;
+        try (Stream<String> emails = userRepository.streamAllEmails()) {
+            for (String email : (Iterable<String>) emails::iterator) {
+                filter.put(normalize(email));
+                count++;
+            }
+        }
+        ready = true;
+        logger.info("Filtre des emails enregistrés chargé : " + count + " emails.");
+    }
+
+    /**
+     * Indique si un email a pu être enregistré.
+     *
+     * @param email Email à tester.
+     * @return false si l'email n'est certainement pas enregistré.
+     */
+    public boolean mightBeRegistered(String email) {
+        return !ready || filter.mightContain(normalize(email));
+    }
+
+    /**
+     * Ajoute un email nouvellement enregistré au filtre.
+     *
+     * @param email Email enregistré.
+     */
+    public void register(String email) {
+        filter.put(normalize(email));
+    }
+
+    // MySQL compare les emails sans tenir compte de la casse : le filtre fait de même
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,214 @@
+package com.rental.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rental.dto.RentalCollectionVersion;
+import com.rental.dto.RentalDTO;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache en lecture des locations : DTO par ID et pages de la liste déjà sérialisées, bornés en taille et en durée de vie,
+ * ainsi que la version de la collection utilisée par les requêtes conditionnelles.
+ * Les entrées sont invalidées précisément à partir des {@link RentalChangedEvent}, une fois la
+ * transaction validée : une transaction annulée ne modifie jamais le cache.
+ */
+@Component
+public class RentalCache {
+
+    private final Cache<Long, RentalDTO> rentalsById;
+    private final Cache<String, RentalPageSnapshot> pages;
+
+    // Version de la collection (max(updatedAt), count), coûteuse à calculer : conservée jusqu'à la prochaine écriture
+    private final AtomicReference<RentalCollectionVersion> collectionVersion = new AtomicReference<>();
+
+    // Incrémenté à chaque invalidation : une page ou une version chargée pendant une écriture n'est pas conservée
+    private final AtomicLong pageGeneration = new AtomicLong();
+
+    // Distingue les générations de cette instance de celles d'une instance précédente
+    private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE,
+            Character.MAX_RADIX);
+
+    public RentalCache(@Value("${rentals.cache.max-size:10000}") long maxSize,
+                       @Value("${rentals.cache.max-pages:1000}") long maxPages,
+                       @Value("${rentals.cache.ttl:5m}") Duration ttl,
+                       MeterRegistry meterRegistry) {
+        this.rentalsById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        monitor(meterRegistry, rentalsById, "rentals.by-id");
+        monitor(meterRegistry, pages, "rentals.pages");
+    }
+
+    /**
+     * Retourne la location en cache, ou la charge une seule fois pour tous les appelants concurrents.
+     *
+     * @param id     ID de la location.
+     * @param loader Chargement depuis la base ; peut retourner null si la location n'existe pas.
+     * @return La location, ou null si elle n'existe pas (l'absence n'est pas mise en cache).
+     */
+    public RentalDTO getRental(Long id, Supplier<RentalDTO> loader) {
+        return rentalsById.get(id, key -> loader.get());
+    }
+
+    /**
+     * Retourne plusieurs locations dans l'ordre demandé ; celles absentes du cache sont chargées en une fois.
+     *
+     * @param ids    IDs des locations, dans l'ordre voulu.
+     * @param loader Chargement groupé des locations absentes du cache.
+     * @return Les locations existantes, dans l'ordre des IDs.
+     */
+    public List<RentalDTO> getRentals(List<Long> ids, Function<Collection<Long>, List<RentalDTO>> loader) {
+        Map<Long, RentalDTO> found = rentalsById.getAll(ids, missing -> {
+            Map<Long, RentalDTO> loaded = new HashMap<>();
+            for (RentalDTO rental : loader.apply(new ArrayList<>(missing))) {
+                loaded.put(rental.getId(), rental);
+            }
+            return loaded;
+        });
+        List<RentalDTO> rentals = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            RentalDTO rental = found.get(id);
+            if (rental != null) {
+                rentals.add(rental);
+            }
+        }
+        return rentals;
+    }
+
+    /**
+     * Retourne la date de modification d'une location, depuis le DTO en cache s'il est présent.
+     *
+     * @param id     ID de la location.
+     * @param loader Lecture de la seule date de modification en base, si la location n'est pas en cache.
+     * @return La date de modification, ou null si la location n'existe pas.
+     */
+    public Date getRentalVersion(Long id, Supplier<Date> loader) {
+        RentalDTO cached = rentalsById.getIfPresent(id);
+        return cached != null ? cached.getUpdatedAtTimestamp() : loader.get();
+    }
+
+    /**
+     * Retourne la version de la collection, calculée au plus une fois entre deux écritures, complétée par
+     * la génération du cache : une écriture validée change la version même si sa date de modification
+     * est antérieure à la plus récente.
+     *
+     * @param loader Calcul de la version en base.
+     * @return La version de la collection.
+     */
+    public RentalCollectionVersion getCollectionVersion(Supplier<RentalCollectionVersion> loader) {
+        RentalCollectionVersion version = collectionVersion.get();
+        if (version != null) {
+            return version;
+        }
+        long generationBefore = pageGeneration.get();
+        version = loader.get().withRevision(instance + "." + generationBefore);
+        if (pageGeneration.get() == generationBefore) {
+            collectionVersion.compareAndSet(null, version);
+        }
+        return version;
+    }
+
+    /**
+     * Retourne la page en cache, ou la charge et la sérialise une seule fois pour tous les appelants concurrents.
+     *
+     * @param cursor   Curseur de la page (null pour la première).
+     * @param pageSize Taille de la page.
+     * @param loader   Chargement et sérialisation de la page.
+     * @return La page sérialisée.
+     */
+    public RentalPageSnapshot getPage(String cursor, int pageSize, Supplier<RentalPageSnapshot> loader) {
+        String key = pageSize + ":" + (cursor != null ? cursor : "");
+        long generationBefore = pageGeneration.get();
+        RentalPageSnapshot page = pages.get(key, k -> loader.get());
+        // Une écriture validée pendant le chargement a pu rendre la page obsolète
+        if (pageGeneration.get() != generationBefore) {
+            pages.invalidate(key);
+        }
+        return page;
+    }
+
+    /**
+     * Invalide les entrées touchées par une création ou une modification, après validation.
+     * Une création touche les pages dont la plage de tri atteint sa date de création, et la dernière :
+     * la date est fixée avant la validation, une transaction lente peut donc insérer la location
+     * avant des pages déjà en cache. Une modification ne touche que les pages qui contiennent la location.
+     *
+     * @param event Événement de modification.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRentalChanged(RentalChangedEvent event) {
+        Long id = event.getRental().getId();
+        pageGeneration.incrementAndGet();
+        collectionVersion.set(null);
+        rentalsById.invalidate(id);
+        if (event.getType() == RentalChangedEvent.Type.CREATED) {
+            Date createdAt = event.getRental().getCreatedAtTimestamp();
+            pages.asMap().values().removeIf(page -> page.reaches(createdAt));
+        } else {
+            pages.asMap().values().removeIf(page -> page.containsRental(id));
+        }
+    }
+
+    /**
+     * Invalide les entrées touchées par un lot importé, après validation : comme pour une création,
+     * les pages dont la plage atteint la plus ancienne date de création du lot, et la version de la collection.
+     *
+     * @param event Lot de locations importé.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRentalsImported(RentalsImportedEvent event) {
+        pageGeneration.incrementAndGet();
+        collectionVersion.set(null);
+        Date minCreatedAt = null;
+        for (RentalDTO rental : event.getRentals()) {
+            Date createdAt = rental.getCreatedAtTimestamp();
+            if (createdAt == null) {
+                // Date inconnue : toute page peut être touchée
+                pages.invalidateAll();
+                return;
+            }
+            if (minCreatedAt == null || createdAt.before(minCreatedAt)) {
+                minCreatedAt = createdAt;
+            }
+        }
+        if (minCreatedAt != null) {
+            Date oldest = minCreatedAt;
+            pages.asMap().values().removeIf(page -> page.reaches(oldest));
+        }
+    }
+
+    private static void monitor(MeterRegistry meterRegistry, Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+}
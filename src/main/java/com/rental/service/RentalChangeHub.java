@@ -0,0 +1,303 @@
+package com.rental.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.dto.RentalChangeDTO;
+import com.rental.dto.RentalDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Diffusion en Server-Sent Events des créations et modifications de locations validées.
+ * <p>
+ * Chaque événement est sérialisé une seule fois, puis déposé dans la file bornée de chaque abonné :
+ * la publication ne bloque jamais sur un client. L'envoi est fait par un pool dédié, au plus une
+ * tâche à la fois par abonné ; un abonné dont la file déborde est déconnecté (il peut se reconnecter
+ * et reprendre grâce à Last-Event-ID). Les derniers événements sont conservés dans un tampon
+ * circulaire pour la reprise ; si l'écart est trop grand, un événement "reset" invite le client à
+ * recharger la liste.
+ */
+@Service
+public class RentalChangeHub {
+
+    private static final Logger logger = Logger.getLogger(RentalChangeHub.class.getName());
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+    private static final Set<DataWithMediaType> RESET = SseEmitter.event().name("reset").data("{}").build();
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor sender;
+    private final ScheduledExecutorService heartbeats;
+    private final Counter evictions;
+
+    // Tampon circulaire des derniers événements, abonnés et numérotation : protégés par lock
+    private final Object lock = new Object();
+    private final List<Set<DataWithMediaType>> ring;
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final long firstSequence;
+    private long lastSequence;
+
+    public RentalChangeHub(ObjectMapper objectMapper,
+                           @Value("${rentals.events.buffer-size:256}") int bufferSize,
+                           @Value("${rentals.events.replay-size:1024}") int replaySize,
+                           @Value("${rentals.events.heartbeat:15s}") Duration heartbeat,
+                           @Value("${rentals.events.timeout:15m}") Duration timeout,
+                           @Value("${rentals.events.sender-threads:4}") int senderThreads,
+                           MeterRegistry meterRegistry) {
+        if (bufferSize <= 0 || replaySize <= 0) {
+            throw new IllegalArgumentException("Les tampons du flux des modifications doivent être positifs.");
+        }
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.ring = new ArrayList<>(Collections.nCopies(replaySize, null));
+
+        // Numéros dérivés de l'horloge : un ID reçu d'une instance précédente est toujours plus ancien
+        // que le tampon courant, et déclenche un "reset" plutôt qu'une reprise erronée
+        this.firstSequence = System.currentTimeMillis() * 1000;
+        this.lastSequence = firstSequence;
+
+        // Au plus une tâche en file par abonné : la file du pool est bornée par le nombre d'abonnés
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("rental-events-"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("rental-events-heartbeat-"));
+        this.heartbeats.scheduleAtFixedRate(this::sendHeartbeats,
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+
+        this.evictions = Counter.builder("rentals.events.evicted")
+                .description("Abonnés déconnectés car trop lents à consommer le flux")
+                .register(meterRegistry);
+        Gauge.builder("rentals.events.subscribers", this, hub -> hub.subscriberCount())
+                .description("Abonnés connectés au flux des modifications de locations")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abonne un client au flux, en rejouant les événements manqués depuis Last-Event-ID.
+     * La connexion est fermée après le délai configuré : le client se reconnecte avec un token valide.
+     *
+     * @param lastEventId Dernier ID d'événement reçu par le client, ou null.
+     * @return L'émetteur SSE à retourner par le contrôleur.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        synchronized (lock) {
+            if (lastEventId != null && !lastEventId.isEmpty()) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+
+    /**
+     * Diffuse la location créée ou modifiée, après validation.
+     *
+     * @param event Événement de modification.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRentalChanged(RentalChangedEvent event) {
+        publish(event.getType().name().toLowerCase(Locale.ROOT), event.getRental());
+    }
+
+    /**
+     * Diffuse chaque location d'un lot importé, après validation.
+     *
+     * @param event Lot de locations importé.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRentalsImported(RentalsImportedEvent event) {
+        String type = RentalChangedEvent.Type.CREATED.name().toLowerCase(Locale.ROOT);
+        for (RentalDTO rental : event.getRentals()) {
+            publish(type, rental);
+        }
+    }
+
+    private void publish(String type, RentalDTO rental) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(new RentalChangeDTO(type, rental.getId(), rental.getUpdatedAt()));
+        } catch (JsonProcessingException e) {
+            logger.warning("Sérialisation de la modification de la location " + rental.getId() + " impossible : "
+                    + e.getMessage());
+            return;
+        }
+
+        List<Subscriber> recipients;
+        synchronized (lock) {
+            long sequence = ++lastSequence;
+            Set<DataWithMediaType> frame = SseEmitter.event().id(Long.toString(sequence)).name(type).data(data).build();
+            ring.set((int) (sequence % ring.size()), frame);
+            recipients = offerToAll(frame);
+        }
+        for (Subscriber subscriber : recipients) {
+            subscriber.schedule();
+        }
+    }
+
+    // Dépose la trame dans la file de chaque abonné ; appelée sous le verrou
+    private List<Subscriber> offerToAll(Set<DataWithMediaType> frame) {
+        List<Subscriber> recipients = new ArrayList<>(subscribers.size());
+        Iterator<Subscriber> iterator = subscribers.iterator();
+        while (iterator.hasNext()) {
+            Subscriber subscriber = iterator.next();
+            if (subscriber.queue.offer(frame)) {
+                recipients.add(subscriber);
+            } else {
+                iterator.remove();
+                evict(subscriber);
+            }
+        }
+        return recipients;
+    }
+
+    // Rejoue les événements postérieurs à lastEventId encore présents dans le tampon ; appelée sous le verrou
+    private void replay(Subscriber subscriber, String lastEventId) {
+        long lastSeen;
+        try {
+            lastSeen = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            lastSeen = -1;
+        }
+        long oldestRetained = lastSequence - Math.min(lastSequence - firstSequence, ring.size()) + 1;
+        long missed = lastSequence - lastSeen;
+        if (lastSeen < oldestRetained - 1 || lastSeen > lastSequence || missed > bufferSize) {
+            subscriber.queue.offer(RESET);
+            return;
+        }
+        for (long sequence = lastSeen + 1; sequence <= lastSequence; sequence++) {
+            subscriber.queue.offer(ring.get((int) (sequence % ring.size())));
+        }
+    }
+
+    private void sendHeartbeats() {
+        List<Subscriber> recipients;
+        synchronized (lock) {
+            recipients = offerToAll(HEARTBEAT);
+        }
+        for (Subscriber subscriber : recipients) {
+            subscriber.schedule();
+        }
+    }
+
+    // Déconnecte un abonné trop lent ; la fermeture est confiée au pool, car un envoi peut être en cours
+    private void evict(Subscriber subscriber) {
+        subscriber.closed = true;
+        evictions.increment();
+        try {
+            sender.execute(subscriber.emitter::complete);
+        } catch (RejectedExecutionException e) {
+            // Arrêt en cours : l'émetteur sera fermé par le conteneur
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        synchronized (lock) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private int subscriberCount() {
+        synchronized (lock) {
+            return subscribers.size();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        List<Subscriber> remaining;
+        synchronized (lock) {
+            remaining = new ArrayList<>(subscribers);
+            subscribers.clear();
+        }
+        for (Subscriber subscriber : remaining) {
+            subscriber.closed = true;
+            subscriber.emitter.complete();
+        }
+        sender.shutdown();
+    }
+
+    /**
+     * Abonné : émetteur SSE et file bornée des trames en attente d'envoi.
+     */
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        // Planifie un envoi si des trames attendent et qu'aucun envoi n'est déjà en cours
+        void schedule() {
+            if (!closed && !queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Set<DataWithMediaType> frame;
+                while (!closed && (frame = queue.poll()) != null) {
+                    emitter.send(frame);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client déconnecté ou émetteur déjà fermé
+                remove(this);
+            } finally {
+                scheduled.set(false);
+            }
+            // Une trame a pu arriver entre la dernière lecture de la file et la fin de l'envoi
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.rental.service;
+
+import com.rental.dto.RentalDTO;
+
+/**
+ * Événement publié par {@link RentalService} à chaque création ou modification d'une location.
+ * Les écouteurs qui maintiennent une vue en mémoire le reçoivent après la validation de la transaction.
+ */
+public class RentalChangedEvent {
+
+    /**
+     * Nature de la modification.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED
+    }
+
+    private final Type type;
+    private final RentalDTO rental;
+
+    public RentalChangedEvent(Type type, RentalDTO rental) {
+        this.type = type;
+        this.rental = rental;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return La location dans son état après modification.
+     */
+    public RentalDTO getRental() {
+        return rental;
+    }
+
+    @Override
+    public String toString() {
+        return "RentalChangedEvent{" +
+                "type=" + type +
+                ", rentalId=" + rental.getId() +
+                '}';
+    }
+}
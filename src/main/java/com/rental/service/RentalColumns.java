@@ -0,0 +1,373 @@
+package com.rental.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Instantané immuable des colonnes filtrables des locations, stockées en tableaux primitifs
+ * (une case par location) : les lignes sont rangées par (createdAt, id), et deux permutations
+ * donnent l'ordre des lignes par (prix, id) et par (surface, id).
+ * <p>
+ * Une modification produit un nouvel instantané (copie des tableaux touchés) ; les tableaux
+ * d'un instantané publié ne sont plus jamais modifiés, ce qui permet de le lire sans verrou.
+ */
+final class RentalColumns {
+
+    static final RentalColumns EMPTY = new RentalColumns(new long[0], new long[0], new double[0], new int[0],
+            new int[0], new int[0]);
+
+    private final long[] ids;
+    private final long[] createdAt;
+    private final double[] prices;
+    private final int[] surfaces;
+    private final int[] byPrice;
+    private final int[] bySurface;
+
+    private RentalColumns(long[] ids, long[] createdAt, double[] prices, int[] surfaces,
+                          int[] byPrice, int[] bySurface) {
+        this.ids = ids;
+        this.createdAt = createdAt;
+        this.prices = prices;
+        this.surfaces = surfaces;
+        this.byPrice = byPrice;
+        this.bySurface = bySurface;
+    }
+
+    /**
+     * Construit un instantané à partir de colonnes déjà rangées par (createdAt, id).
+     *
+     * @param size Nombre de lignes utilisées dans les tableaux.
+     */
+    static RentalColumns build(long[] ids, long[] createdAt, double[] prices, int[] surfaces, int size) {
+        long[] rowIds = Arrays.copyOf(ids, size);
+        double[] rowPrices = Arrays.copyOf(prices, size);
+        int[] rowSurfaces = Arrays.copyOf(surfaces, size);
+        Comparator<Integer> priceOrder = (a, b) -> {
+            int compare = Double.compare(rowPrices[a], rowPrices[b]);
+            return compare != 0 ? compare : Long.compare(rowIds[a], rowIds[b]);
+        };
+        Comparator<Integer> surfaceOrder = (a, b) -> {
+            int compare = Integer.compare(rowSurfaces[a], rowSurfaces[b]);
+            return compare != 0 ? compare : Long.compare(rowIds[a], rowIds[b]);
+        };
+        return new RentalColumns(rowIds, Arrays.copyOf(createdAt, size), rowPrices, rowSurfaces,
+                sortedRows(size, priceOrder), sortedRows(size, surfaceOrder));
+    }
+
+    /**
+     * @return Nombre de locations de l'instantané.
+     */
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * Retourne un nouvel instantané contenant la location créée ou modifiée.
+     * Seules les colonnes modifiées sont copiées ; les permutations sont corrigées par décalage
+     * et insertion à la position trouvée par recherche dichotomique, sans nouveau tri.
+     */
+    RentalColumns withRental(long id, long created, double price, int surface) {
+        int row = lowerBound(null, RentalSort.CREATED, created, id);
+        if (row < ids.length && ids[row] == id) {
+            double[] newPrices = prices.clone();
+            newPrices[row] = price;
+            int[] newSurfaces = surfaces.clone();
+            newSurfaces[row] = surface;
+            int[] priceOrder = remove(byPrice, lowerBound(byPrice, RentalSort.PRICE, prices[row], id));
+            int[] surfaceOrder = remove(bySurface, lowerBound(bySurface, RentalSort.SURFACE, surfaces[row], id));
+            return withOrders(ids, createdAt, newPrices, newSurfaces, priceOrder, surfaceOrder, row, id, price, surface);
+        }
+
+        // Nouvelle ligne : les lignes suivantes sont décalées d'un rang dans les permutations
+        return withOrders(insert(ids, row, id), insert(createdAt, row, created), insert(prices, row, price),
+                insert(surfaces, row, surface), shiftRows(byPrice, row), shiftRows(bySurface, row),
+                row, id, price, surface);
+    }
+
+    /**
+     * Retourne un nouvel instantané contenant en plus un lot de nouvelles locations (import).
+     * Le lot est trié, puis fusionné en un seul passage avec les lignes et les permutations existantes.
+     */
+    RentalColumns withRentals(long[] newIds, long[] newCreated, double[] newPrices, int[] newSurfaces) {
+        int n = ids.length;
+        int k = newIds.length;
+        Comparator<Integer> creationOrder = (a, b) -> {
+            int compare = Long.compare(newCreated[a], newCreated[b]);
+            return compare != 0 ? compare : Long.compare(newIds[a], newIds[b]);
+        };
+        int[] batch = sortedRows(k, creationOrder);
+
+        long[] mergedIds = new long[n + k];
+        long[] mergedCreated = new long[n + k];
+        double[] mergedPrices = new double[n + k];
+        int[] mergedSurfaces = new int[n + k];
+        int[] oldRows = new int[n];
+        int[] batchRows = new int[k];
+        int i = 0;
+        int j = 0;
+        for (int row = 0; row < n + k; row++) {
+            boolean takeOld = j == k || (i < n && (createdAt[i] != newCreated[batch[j]]
+                    ? createdAt[i] < newCreated[batch[j]]
+                    : ids[i] < newIds[batch[j]]));
+            if (takeOld) {
+                mergedIds[row] = ids[i];
+                mergedCreated[row] = createdAt[i];
+                mergedPrices[row] = prices[i];
+                mergedSurfaces[row] = surfaces[i];
+                oldRows[i++] = row;
+            } else {
+                int source = batch[j];
+                mergedIds[row] = newIds[source];
+                mergedCreated[row] = newCreated[source];
+                mergedPrices[row] = newPrices[source];
+                mergedSurfaces[row] = newSurfaces[source];
+                batchRows[j++] = row;
+            }
+        }
+
+        RentalColumns merged = new RentalColumns(mergedIds, mergedCreated, mergedPrices, mergedSurfaces, null, null);
+        return new RentalColumns(mergedIds, mergedCreated, mergedPrices, mergedSurfaces,
+                merged.mergeOrders(RentalSort.PRICE, byPrice, oldRows, batchRows),
+                merged.mergeOrders(RentalSort.SURFACE, bySurface, oldRows, batchRows));
+    }
+
+    // Fusionne une permutation existante (renumérotée) avec les nouvelles lignes triées selon la même clé
+    private int[] mergeOrders(RentalSort sort, int[] order, int[] oldRows, int[] batchRows) {
+        int[] batchOrder = sortedRows(batchRows.length, (a, b) -> compareRows(sort, batchRows[a], batchRows[b]));
+        int[] merged = new int[order.length + batchRows.length];
+        int i = 0;
+        int j = 0;
+        for (int position = 0; position < merged.length; position++) {
+            if (j == batchOrder.length
+                    || (i < order.length && compareRows(sort, oldRows[order[i]], batchRows[batchOrder[j]]) < 0)) {
+                merged[position] = oldRows[order[i++]];
+            } else {
+                merged[position] = batchRows[batchOrder[j++]];
+            }
+        }
+        return merged;
+    }
+
+    private int compareRows(RentalSort sort, int a, int b) {
+        int compare = Double.compare(value(sort, a), value(sort, b));
+        return compare != 0 ? compare : Long.compare(ids[a], ids[b]);
+    }
+
+    // Place la ligne dans des permutations qui ne la contiennent pas encore, d'après les nouvelles colonnes
+    private static RentalColumns withOrders(long[] ids, long[] createdAt, double[] prices, int[] surfaces,
+                                            int[] priceOrder, int[] surfaceOrder,
+                                            int row, long id, double price, int surface) {
+        RentalColumns columns = new RentalColumns(ids, createdAt, prices, surfaces, null, null);
+        return new RentalColumns(ids, createdAt, prices, surfaces,
+                insert(priceOrder, columns.lowerBound(priceOrder, RentalSort.PRICE, price, id), row),
+                insert(surfaceOrder, columns.lowerBound(surfaceOrder, RentalSort.SURFACE, surface, id), row));
+    }
+
+    /**
+     * Parcourt la colonne triée à partir du curseur, en ne visitant que la plage de valeurs autorisée
+     * par le filtre sur cette colonne ; l'autre colonne est filtrée ligne par ligne.
+     *
+     * @param filter Bornes et ordre de tri.
+     * @param cursor Position de la page précédente, ou null.
+     * @param limit  Taille de la page.
+     * @return IDs de la page et curseur de la page suivante.
+     */
+    Result query(RentalFilter filter, RentalSortCursor cursor, int limit) {
+        RentalSort sort = filter.getSort();
+        int[] order = orderFor(sort);
+        double min;
+        double max;
+        switch (sort) {
+            case PRICE:
+            case PRICE_DESC:
+                min = filter.getMinPrice();
+                max = filter.getMaxPrice();
+                break;
+            case SURFACE:
+            case SURFACE_DESC:
+                min = filter.getMinSurface();
+                max = filter.getMaxSurface();
+                break;
+            default:
+                min = Double.NEGATIVE_INFINITY;
+                max = Double.POSITIVE_INFINITY;
+        }
+
+        // Une ligne de plus que demandé indique l'existence d'une page suivante
+        int[] rows = new int[Math.min(limit + 1, ids.length)];
+        int count = 0;
+        if (!sort.isDescending()) {
+            int start = lowerBound(order, sort, min, Long.MIN_VALUE);
+            if (cursor != null) {
+                start = Math.max(start, lowerBound(order, sort, cursor.getValue(), cursor.getId() + 1));
+            }
+            for (int position = start; position < ids.length && count < rows.length; position++) {
+                int row = order == null ? position : order[position];
+                if (value(sort, row) > max) {
+                    break;
+                }
+                if (matches(filter, row)) {
+                    rows[count++] = row;
+                }
+            }
+        } else {
+            int start = lowerBound(order, sort, max, Long.MAX_VALUE) - 1;
+            if (cursor != null) {
+                start = Math.min(start, lowerBound(order, sort, cursor.getValue(), cursor.getId()) - 1);
+            }
+            for (int position = start; position >= 0 && count < rows.length; position--) {
+                int row = order == null ? position : order[position];
+                if (value(sort, row) < min) {
+                    break;
+                }
+                if (matches(filter, row)) {
+                    rows[count++] = row;
+                }
+            }
+        }
+
+        String nextCursor = null;
+        if (count > limit) {
+            count = limit;
+            int last = rows[limit - 1];
+            nextCursor = new RentalSortCursor(sort, value(sort, last), ids[last]).encode();
+        }
+        List<Long> pageIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pageIds.add(ids[rows[i]]);
+        }
+        return new Result(pageIds, nextCursor);
+    }
+
+    private boolean matches(RentalFilter filter, int row) {
+        double price = prices[row];
+        int surface = surfaces[row];
+        return price >= filter.getMinPrice() && price <= filter.getMaxPrice()
+                && surface >= filter.getMinSurface() && surface <= filter.getMaxSurface();
+    }
+
+    private int[] orderFor(RentalSort sort) {
+        switch (sort) {
+            case PRICE:
+            case PRICE_DESC:
+                return byPrice;
+            case SURFACE:
+            case SURFACE_DESC:
+                return bySurface;
+            default:
+                return null;
+        }
+    }
+
+    private double value(RentalSort sort, int row) {
+        switch (sort) {
+            case PRICE:
+            case PRICE_DESC:
+                return prices[row];
+            case SURFACE:
+            case SURFACE_DESC:
+                return surfaces[row];
+            default:
+                return createdAt[row];
+        }
+    }
+
+    /**
+     * Première position de l'ordre (null : ordre des lignes) dont la clé (valeur, id) est
+     * supérieure ou égale à la clé donnée.
+     */
+    private int lowerBound(int[] order, RentalSort sort, double value, long id) {
+        int low = 0;
+        int high = order == null ? ids.length : order.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int row = order == null ? middle : order[middle];
+            int compare = Double.compare(value(sort, row), value);
+            if (compare == 0) {
+                compare = Long.compare(ids[row], id);
+            }
+            if (compare < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int[] sortedRows(int size, Comparator<Integer> comparator) {
+        Integer[] rows = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        Arrays.sort(rows, comparator);
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = rows[i];
+        }
+        return sorted;
+    }
+
+    private static int[] shiftRows(int[] order, int insertedRow) {
+        int[] shifted = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            shifted[i] = order[i] >= insertedRow ? order[i] + 1 : order[i];
+        }
+        return shifted;
+    }
+
+    private static int[] remove(int[] array, int index) {
+        int[] result = new int[array.length - 1];
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+
+    private static int[] insert(int[] array, int index, int value) {
+        int[] result = new int[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    private static long[] insert(long[] array, int index, long value) {
+        long[] result = new long[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    private static double[] insert(double[] array, int index, double value) {
+        double[] result = new double[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    /**
+     * Page d'IDs issue d'un instantané.
+     */
+    static final class Result {
+
+        private final List<Long> ids;
+        private final String nextCursor;
+
+        Result(List<Long> ids, String nextCursor) {
+            this.ids = ids;
+            this.nextCursor = nextCursor;
+        }
+
+        List<Long> getIds() {
+            return ids;
+        }
+
+        String getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
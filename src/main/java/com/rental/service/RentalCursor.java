@@ -0,0 +1,59 @@
+package com.rental.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position dans une liste de locations triée par (date, id) : date de création pour la pagination,
+ * date de modification pour la synchronisation des changements.
+ * Transmis aux clients sous forme opaque : "millis:id" encodé en Base64URL.
+ */
+final class RentalCursor {
+
+    private final Date date;
+    private final Long id;
+
+    RentalCursor(Date date, Long id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    Date getDate() {
+        return date;
+    }
+
+    Long getId() {
+        return id;
+    }
+
+    /**
+     * @return Le curseur sous sa forme opaque.
+     */
+    String encode() {
+        String raw = date.getTime() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Décode un curseur opaque.
+     *
+     * @param cursor Curseur reçu du client.
+     * @return La position correspondante.
+     * @throws IllegalArgumentException si le curseur est invalide.
+     */
+    static RentalCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Curseur invalide.");
+            }
+            return new RentalCursor(new Date(Long.parseLong(raw.substring(0, separator))),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException et erreurs Base64 comprises
+            throw new IllegalArgumentException("Curseur invalide.", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.rental.service;
+
+import java.util.Locale;
+
+/**
+ * Formats de l'export du catalogue des locations.
+ */
+public enum RentalExportFormat {
+
+    /** Une location JSON par ligne (JSON Lines). */
+    NDJSON("application/x-ndjson"),
+
+    /** Un unique tableau JSON. */
+    JSON("application/json");
+
+    private final String contentType;
+
+    RentalExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Convertit le paramètre de requête "format" (insensible à la casse).
+     *
+     * @param format Valeur du paramètre.
+     * @return Le format correspondant.
+     * @throws IllegalArgumentException si le format est inconnu.
+     */
+    public static RentalExportFormat fromParameter(String format) {
+        try {
+            return valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Format d'export inconnu : " + format, e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.rental.service;
+
+/**
+ * Critères de la liste des locations : bornes de prix et de surface (incluses, facultatives) et ordre de tri.
+ */
+public class RentalFilter {
+
+    private final Double minPrice;
+    private final Double maxPrice;
+    private final Integer minSurface;
+    private final Integer maxSurface;
+    private final RentalSort sort;
+
+    public RentalFilter(Double minPrice, Double maxPrice, Integer minSurface, Integer maxSurface, RentalSort sort) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.minSurface = minSurface;
+        this.maxSurface = maxSurface;
+        this.sort = sort != null ? sort : RentalSort.CREATED;
+    }
+
+    /**
+     * @return true si aucune borne n'est fixée et que l'ordre est celui par défaut.
+     */
+    public boolean isEmpty() {
+        return minPrice == null && maxPrice == null && minSurface == null && maxSurface == null
+                && sort == RentalSort.CREATED;
+    }
+
+    double getMinPrice() {
+        return minPrice != null ? minPrice : Double.NEGATIVE_INFINITY;
+    }
+
+    double getMaxPrice() {
+        return maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY;
+    }
+
+    int getMinSurface() {
+        return minSurface != null ? minSurface : Integer.MIN_VALUE;
+    }
+
+    int getMaxSurface() {
+        return maxSurface != null ? maxSurface : Integer.MAX_VALUE;
+    }
+
+    public RentalSort getSort() {
+        return sort;
+    }
+
+    /**
+     * @return Forme compacte des critères, composée uniquement de nombres et du nom du tri (utilisable dans un ETag).
+     */
+    public String toKey() {
+        return sort.getParameter() + "," + format(minPrice) + "," + format(maxPrice)
+                + "," + format(minSurface) + "," + format(maxSurface);
+    }
+
+    private static String format(Number value) {
+        return value != null ? value.toString() : "";
+    }
+}
@@ -0,0 +1,138 @@
+package com.rental.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.rental.dto.RentalDTO;
+import com.rental.repository.RentalRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Filtrage et tri des locations par prix et par surface, servis depuis un instantané en colonnes
+ * ({@link RentalColumns}) plutôt que par une requête SQL par combinaison de critères.
+ * Les lecteurs lisent l'instantané courant sans verrou ; chaque création ou modification validée
+ * publie un nouvel instantané (copie sur écriture), un seul écrivain à la fois.
+ */
+@Service
+public class RentalFilterIndex {
+
+    private static final Logger logger = Logger.getLogger(RentalFilterIndex.class.getName());
+
+    private final RentalRepository rentalRepository;
+
+    private volatile RentalColumns columns = RentalColumns.EMPTY;
+
+    // Tant que l'instantané n'est pas chargé, les requêtes filtrées sont refusées plutôt que tronquées
+    private volatile boolean ready;
+
+    public RentalFilterIndex(RentalRepository rentalRepository, MeterRegistry meterRegistry) {
+        this.rentalRepository = rentalRepository;
+
+        Gauge.builder("rentals.filter-index.size", this, index -> index.columns.size())
+                .description("Nombre de locations dans l'instantané de filtrage")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Charge l'instantané en parcourant la table des locations au démarrage.
+     * Les modifications validées pendant le chargement attendent sa fin, puis s'appliquent par-dessus.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long[] ids = new long[1024];
+        long[] createdAt = new long[1024];
+        double[] prices = new double[1024];
+        int[] surfaces = new int[1024];
+        int size = 0;
+        try (Stream<RentalDTO> rentals = rentalRepository.streamAll()) {
+            for (RentalDTO rental : (Iterable<RentalDTO>) rentals::iterator) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    createdAt = Arrays.copyOf(createdAt, size * 2);
+                    prices = Arrays.copyOf(prices, size * 2);
+                    surfaces = Arrays.copyOf(surfaces, size * 2);
+                }
+                ids[size] = rental.getId();
+                createdAt[size] = rental.getCreatedAtTimestamp().getTime();
+                prices[size] = rental.getPrice();
+                surfaces[size] = rental.getSurface();
+                size++;
+            }
+        }
+        columns = RentalColumns.build(ids, createdAt, prices, surfaces, size);
+        ready = true;
+        logger.info("Instantané de filtrage des locations chargé : " + size + " locations.");
+    }
+
+    /**
+     * Publie un nouvel instantané contenant la location créée ou modifiée, après validation.
+     * Exécuté avant l'invalidation du cache : une version de collection recalculée n'est jamais
+     * plus récente que l'instantané.
+     *
+     * @param event Événement de modification.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onRentalChanged(RentalChangedEvent event) {
+        RentalDTO rental = event.getRental();
+        columns = columns.withRental(rental.getId(), rental.getCreatedAtTimestamp().getTime(),
+                rental.getPrice(), rental.getSurface());
+    }
+
+    /**
+     * Publie un nouvel instantané contenant un lot de locations importé, fusionné en une seule copie.
+     *
+     * @param event Lot de locations importé.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onRentalsImported(RentalsImportedEvent event) {
+        List<RentalDTO> rentals = event.getRentals();
+        long[] ids = new long[rentals.size()];
+        long[] createdAt = new long[rentals.size()];
+        double[] prices = new double[rentals.size()];
+        int[] surfaces = new int[rentals.size()];
+        for (int i = 0; i < rentals.size(); i++) {
+            RentalDTO rental = rentals.get(i);
+            ids[i] = rental.getId();
+            createdAt[i] = rental.getCreatedAtTimestamp().getTime();
+            prices[i] = rental.getPrice();
+            surfaces[i] = rental.getSurface();
+        }
+        columns = columns.withRentals(ids, createdAt, prices, surfaces);
+    }
+
+    /**
+     * Retourne une page d'IDs de locations filtrées et triées.
+     *
+     * @param filter Bornes et ordre de tri.
+     * @param cursor Curseur opaque de la page précédente, ou null.
+     * @param limit  Taille de la page.
+     * @return IDs de la page, dans l'ordre, et curseur de la page suivante.
+     * @throws IllegalArgumentException si le curseur est invalide.
+     * @throws IllegalStateException    si l'instantané n'est pas encore chargé.
+     */
+    RentalColumns.Result query(RentalFilter filter, String cursor, int limit) {
+        if (!ready) {
+            throw new IllegalStateException("Le filtrage des locations est en cours de chargement.");
+        }
+        RentalSortCursor position = cursor == null || cursor.isEmpty()
+                ? null
+                : RentalSortCursor.decode(cursor, filter.getSort());
+        return columns.query(filter, position, limit);
+    }
+}
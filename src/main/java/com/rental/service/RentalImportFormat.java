@@ -0,0 +1,30 @@
+package com.rental.service;
+
+import java.util.Locale;
+
+/**
+ * Formats acceptés par l'import en masse des locations.
+ */
+public enum RentalImportFormat {
+
+    /** Une location JSON par ligne (JSON Lines). */
+    NDJSON,
+
+    /** CSV avec ligne d'en-tête (name, description, price, surface, picture), séparateur virgule. */
+    CSV;
+
+    /**
+     * Convertit le paramètre de requête "format" (insensible à la casse).
+     *
+     * @param format Valeur du paramètre.
+     * @return Le format correspondant.
+     * @throws IllegalArgumentException si le format est inconnu.
+     */
+    public static RentalImportFormat fromParameter(String format) {
+        try {
+            return valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Format d'import inconnu : " + format, e);
+        }
+    }
+}
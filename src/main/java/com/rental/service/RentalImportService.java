@@ -0,0 +1,231 @@
+package com.rental.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.dto.RentalDTO;
+import com.rental.dto.RentalImportDTO;
+import com.rental.dto.RentalImportReportDTO;
+import com.rental.entity.Rental;
+import com.rental.entity.User;
+import com.rental.repository.RentalRepository;
+import com.rental.repository.UserRepository;
+import com.rental.util.CsvReader;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Import en masse de locations depuis un flux NDJSON ou CSV.
+ * Le corps est lu au fil de l'eau et les locations sont enregistrées par lots, chacun dans sa propre
+ * transaction : les INSERT d'un lot partent en batchs JDBC (IDs pré-alloués par le générateur de
+ * table, voir {@link Rental}). Une erreur arrête l'import ; les lots déjà validés sont conservés.
+ */
+@Service
+public class RentalImportService {
+
+    private static final Logger logger = Logger.getLogger(RentalImportService.class.getName());
+
+    private final RentalRepository rentalRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Timer chunkTimer;
+    private final Counter importedRentals;
+
+    public RentalImportService(RentalRepository rentalRepository, UserRepository userRepository,
+                               ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${rentals.import.chunk-size:1000}") int chunkSize,
+                               MeterRegistry meterRegistry) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("La taille des lots d'import doit être positive.");
+        }
+        this.rentalRepository = rentalRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.chunkTimer = Timer.builder("rentals.import.chunk")
+                .description("Durée d'écriture et de validation d'un lot de l'import des locations")
+                .register(meterRegistry);
+        this.importedRentals = Counter.builder("rentals.import.rows")
+                .description("Locations créées par l'import en masse")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Importe les locations du flux, toutes attribuées au même propriétaire.
+     *
+     * @param format      Format du flux.
+     * @param inputStream Corps de la requête (UTF-8), lu jusqu'à la fin.
+     * @param ownerId     ID du propriétaire des locations.
+     * @return Compte rendu de l'import, lot par lot.
+     * @throws IOException              si la lecture du flux échoue.
+     * @throws IllegalArgumentException si le propriétaire est inconnu ou un enregistrement invalide
+     *                                  (le message indique le nombre de locations déjà importées).
+     */
+    public RentalImportReportDTO importRentals(RentalImportFormat format, InputStream inputStream, Long ownerId)
+            throws IOException {
+        if (ownerId == null || !userRepository.existsById(ownerId)) {
+            throw new IllegalArgumentException("Propriétaire inconnu : " + ownerId);
+        }
+
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        RecordReader records = format == RentalImportFormat.CSV ? csvRecords(reader) : ndjsonRecords(reader);
+
+        List<RentalImportReportDTO.Chunk> chunks = new ArrayList<>();
+        List<Rental> chunk = new ArrayList<>(chunkSize);
+        long imported = 0;
+        long parsed = 0;
+        try {
+            for (RentalImportDTO record = records.next(); record != null; record = records.next()) {
+                chunk.add(toEntity(record, ownerId));
+                parsed++;
+                if (chunk.size() == chunkSize) {
+                    chunks.add(saveChunk(chunks.size() + 1, chunk));
+                    imported += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Enregistrement " + (parsed + 1) + " invalide : " + e.getMessage()
+                    + " (" + imported + " locations déjà importées).", e);
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(saveChunk(chunks.size() + 1, chunk));
+            imported += chunk.size();
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Import terminé : " + imported + " locations en " + chunks.size() + " lots, "
+                + durationMillis + " ms.");
+        return new RentalImportReportDTO(imported, durationMillis, chunks);
+    }
+
+    // Enregistre un lot dans sa propre transaction ; les vues en mémoire sont mises à jour après validation
+    private RentalImportReportDTO.Chunk saveChunk(int index, List<Rental> rentals) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<RentalDTO> created = new ArrayList<>(rentals.size());
+            for (Rental rental : rentalRepository.saveAll(rentals)) {
+                created.add(new RentalDTO(rental.getId(), rental.getName(), rental.getDescription(),
+                        rental.getPrice(), rental.getSurface(), rental.getPicture(),
+                        rental.getPictureVariants(), rental.getPicturePlaceholder(), rental.getCreatedAt(), rental.getUpdatedAt(), rental.getOwner().getId()));
+            }
+            eventPublisher.publishEvent(new RentalsImportedEvent(created));
+        });
+        long nanos = System.nanoTime() - start;
+        chunkTimer.record(nanos, TimeUnit.NANOSECONDS);
+        importedRentals.increment(rentals.size());
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        double rowsPerSecond = Math.round(rentals.size() * 10_000_000_000.0 / Math.max(1L, nanos)) / 10.0;
+        logger.info("Lot " + index + " importé : " + rentals.size() + " locations en " + durationMillis
+                + " ms (" + rowsPerSecond + " locations/s).");
+        return new RentalImportReportDTO.Chunk(index, rentals.size(), durationMillis, rowsPerSecond);
+    }
+
+    private static Rental toEntity(RentalImportDTO record, Long ownerId) {
+        if (record.getName() == null || record.getName().isBlank()) {
+            throw new IllegalArgumentException("le nom est obligatoire");
+        }
+        if (record.getPrice() == null || record.getPrice() < 0) {
+            throw new IllegalArgumentException("le prix est obligatoire et doit être positif");
+        }
+        if (record.getSurface() == null || record.getSurface() < 0) {
+            throw new IllegalArgumentException("la surface est obligatoire et doit être positive");
+        }
+        Rental rental = new Rental();
+        rental.setName(record.getName());
+        rental.setDescription(record.getDescription() != null ? record.getDescription() : "");
+        rental.setPrice(record.getPrice());
+        rental.setSurface(record.getSurface());
+        rental.setPicture(record.getPicture() != null ? record.getPicture() : "");
+        rental.setOwner(new User(ownerId));
+        return rental;
+    }
+
+    private RecordReader ndjsonRecords(BufferedReader reader) {
+        return () -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    try {
+                        return objectMapper.readValue(line, RentalImportDTO.class);
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalArgumentException("JSON invalide (" + e.getOriginalMessage() + ")", e);
+                    }
+                }
+            }
+            return null;
+        };
+    }
+
+    // Les colonnes sont repérées par la ligne d'en-tête, dans n'importe quel ordre
+    private static RecordReader csvRecords(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader, ',');
+        List<String> header = csv.readRecord();
+        Map<String, Integer> columns = new HashMap<>();
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+        return () -> {
+            List<String> fields = csv.readRecord();
+            if (fields == null) {
+                return null;
+            }
+            String price = field(fields, columns, "price");
+            String surface = field(fields, columns, "surface");
+            try {
+                return new RentalImportDTO(field(fields, columns, "name"), field(fields, columns, "description"),
+                        price != null ? Double.valueOf(price.trim()) : null,
+                        surface != null ? Integer.valueOf(surface.trim()) : null,
+                        field(fields, columns, "picture"));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("prix ou surface non numérique", e);
+            }
+        };
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < fields.size() ? fields.get(index) : null;
+    }
+
+    /**
+     * Source d'enregistrements d'import, lue au fil de l'eau.
+     */
+    private interface RecordReader {
+
+        /**
+         * @return L'enregistrement suivant, ou null en fin de flux.
+         */
+        RentalImportDTO next() throws IOException;
+    }
+}
@@ -0,0 +1,120 @@
+package com.rental.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.dto.RentalDTO;
+import com.rental.dto.RentalPage;
+
+/**
+ * Page de locations déjà sérialisée en JSON, et compressée en gzip une fois pour toutes.
+ * Les octets sont écrits tels quels dans la réponse : une page en cache ne repasse ni par la
+ * conversion des dates ni par Jackson. Seuls les IDs et la date de création de la dernière location
+ * sont conservés pour l'invalidation.
+ */
+public final class RentalPageSnapshot {
+
+    // En deçà, l'en-tête gzip et le coût de décompression ne valent pas le gain
+    private static final int MIN_COMPRESSED_SIZE = 1024;
+
+    private final long[] rentalIds;
+    private final boolean lastPage;
+    // Date de création de la dernière location de la page (en millisecondes), borne de sa plage de tri
+    private final long lastCreatedAt;
+    private final byte[] json;
+    private final byte[] gzip;
+
+    private RentalPageSnapshot(long[] rentalIds, boolean lastPage, long lastCreatedAt, byte[] json, byte[] gzip) {
+        this.rentalIds = rentalIds;
+        this.lastPage = lastPage;
+        this.lastCreatedAt = lastCreatedAt;
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Sérialise une page.
+     *
+     * @param page         Page à sérialiser.
+     * @param objectMapper ObjectMapper de l'application, celui des réponses JSON.
+     * @param compress     true pour préparer aussi la variante gzip (pages conservées en cache).
+     * @return L'instantané de la page.
+     */
+    static RentalPageSnapshot of(RentalPage page, ObjectMapper objectMapper, boolean compress) {
+        List<RentalDTO> rentals = page.getRentals();
+        long[] rentalIds = new long[rentals.size()];
+        for (int i = 0; i < rentalIds.length; i++) {
+            rentalIds[i] = rentals.get(i).getId();
+        }
+        Date last = rentals.isEmpty() ? null : rentals.get(rentals.size() - 1).getCreatedAtTimestamp();
+        // Sans date connue, la page est invalidée par toute création
+        long lastCreatedAt = last != null ? last.getTime() : Long.MAX_VALUE;
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(page);
+            byte[] gzip = compress && json.length >= MIN_COMPRESSED_SIZE ? gzip(json) : null;
+            return new RentalPageSnapshot(rentalIds, page.getNextCursor() == null, lastCreatedAt, json, gzip);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Sérialisation de la page de locations impossible.", e);
+        }
+    }
+
+    // Compression maximale : elle n'est payée qu'une fois par page mise en cache
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * @return La page en JSON (UTF-8). Le tableau est partagé et ne doit pas être modifié.
+     */
+    public byte[] getJson() {
+        return json;
+    }
+
+    /**
+     * @return La page en JSON compressé gzip, ou null si elle n'a pas été compressée (page courte ou
+     *         non conservée en cache). Le tableau est partagé et ne doit pas être modifié.
+     */
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    /**
+     * Indique si une location créée à la date donnée peut figurer dans la page : la date de création est
+     * fixée avant la validation, une création peut donc s'insérer avant la dernière page.
+     *
+     * @param createdAt Date de création de la location, ou null si elle est inconnue.
+     * @return true si c'est la dernière page, ou si sa plage de tri atteint cette date.
+     */
+    boolean reaches(Date createdAt) {
+        return lastPage || createdAt == null || lastCreatedAt >= createdAt.getTime();
+    }
+
+    /**
+     * Indique si la page contient la location donnée.
+     *
+     * @param id ID de la location.
+     * @return true si la location figure dans la page.
+     */
+    boolean containsRental(Long id) {
+        for (long rentalId : rentalIds) {
+            if (rentalId == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
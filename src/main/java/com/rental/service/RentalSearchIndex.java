@@ -0,0 +1,106 @@
+package com.rental.service;
+
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.rental.dto.RentalDTO;
+import com.rental.repository.RentalRepository;
+import com.rental.util.InvertedIndex;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Index de recherche plein texte des locations (nom et description), tenu en mémoire.
+ * Chargé en parcourant la table au démarrage, puis maintenu à partir des {@link RentalChangedEvent}
+ * une fois les transactions validées. Chaque location est indexée avec sa date de modification :
+ * une version plus ancienne lue pendant le chargement ne remplace jamais une modification déjà reçue.
+ */
+@Service
+public class RentalSearchIndex {
+
+    private static final Logger logger = Logger.getLogger(RentalSearchIndex.class.getName());
+
+    private final RentalRepository rentalRepository;
+    private final InvertedIndex index = new InvertedIndex();
+
+    public RentalSearchIndex(RentalRepository rentalRepository, MeterRegistry meterRegistry) {
+        this.rentalRepository = rentalRepository;
+
+        Gauge.builder("rentals.search.documents", index, InvertedIndex::size)
+                .description("Nombre de locations dans l'index de recherche")
+                .register(meterRegistry);
+        Gauge.builder("rentals.search.terms", index, InvertedIndex::termCount)
+                .description("Nombre de termes distincts dans l'index de recherche")
+                .register(meterRegistry);
+        Gauge.builder("rentals.search.postings", index, InvertedIndex::getPostingBytes)
+                .description("Mémoire occupée par les listes de postings compressées")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Charge l'index en parcourant la table des locations au démarrage.
+     * Les locations créées ou modifiées pendant le chargement sont indexées directement.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long count = 0;
+        try (Stream<RentalDTO> rentals = rentalRepository.streamAll()) {
+            for (RentalDTO rental : (Iterable<RentalDTO>) rentals::iterator) {
+                index(rental);
+                count++;
+            }
+        }
+        logger.info("Index de recherche des locations chargé : " + count + " locations, "
+                + index.termCount() + " termes.");
+    }
+
+    /**
+     * Indexe la location créée ou modifiée, après validation.
+     *
+     * @param event Événement de modification.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRentalChanged(RentalChangedEvent event) {
+        index(event.getRental());
+    }
+
+    /**
+     * Indexe un lot de locations importé, après validation.
+     *
+     * @param event Lot de locations importé.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRentalsImported(RentalsImportedEvent event) {
+        for (RentalDTO rental : event.getRentals()) {
+            index(rental);
+        }
+    }
+
+    /**
+     * Recherche les locations dont le nom ou la description contient au moins un terme de la requête.
+     *
+     * @param query Texte recherché (accents et casse ignorés).
+     * @param limit Nombre maximal de résultats.
+     * @return IDs des locations, de la plus pertinente à la moins pertinente.
+     */
+    public List<Long> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    private void index(RentalDTO rental) {
+        long version = rental.getUpdatedAtTimestamp() != null ? rental.getUpdatedAtTimestamp().getTime() : 0L;
+        String description = rental.getDescription();
+        index.put(rental.getId(), version, description != null ? rental.getName() + "\n" + description : rental.getName());
+    }
+}
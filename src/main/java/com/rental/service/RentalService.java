@@ -1,19 +1,37 @@
 package com.rental.service;
 
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rental.dto.CreateRentalDTO;
+import com.rental.dto.RentalChanges;
+import com.rental.dto.RentalCollectionVersion;
 import com.rental.dto.RentalDTO;
+import com.rental.dto.RentalPage;
 import com.rental.dto.UpdateRentalDTO;
 import com.rental.entity.Rental;
 import com.rental.entity.User;
@@ -28,21 +46,220 @@ public class RentalService {
 
     private final RentalRepository rentalRepository;
     private final ImageStorageService imageStorageService;
+    private final ObjectMapper objectMapper;
+    private final RentalCache rentalCache;
+    private final RentalSearchIndex rentalSearchIndex;
+    private final RentalFilterIndex rentalFilterIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor taskExecutor;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int exportFlushInterval;
+    private final long changesSettleMillis;
 
-    public RentalService(RentalRepository rentalRepository, ImageStorageService imageStorageService) {
+    public RentalService(RentalRepository rentalRepository, ImageStorageService imageStorageService,
+                         ObjectMapper objectMapper, RentalCache rentalCache,
+                         RentalSearchIndex rentalSearchIndex, RentalFilterIndex rentalFilterIndex,
+                         ApplicationEventPublisher eventPublisher,
+                         PlatformTransactionManager transactionManager,
+                         @Qualifier("rentalTaskExecutor") Executor taskExecutor,
+                         @Value("${rentals.page.default-size:100}") int defaultPageSize,
+                         @Value("${rentals.page.max-size:500}") int maxPageSize,
+                         @Value("${rentals.export.flush-interval:1000}") int exportFlushInterval,
+                         @Value("${rentals.changes.settle-delay:5s}") Duration changesSettleDelay) {
         this.rentalRepository = rentalRepository;
         this.imageStorageService = imageStorageService;
+        this.objectMapper = objectMapper;
+        this.rentalCache = rentalCache;
+        this.rentalSearchIndex = rentalSearchIndex;
+        this.rentalFilterIndex = rentalFilterIndex;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.exportFlushInterval = exportFlushInterval;
+        this.changesSettleMillis = changesSettleDelay.toMillis();
     }
 
     /**
-     * Récupère toutes les locations.
-     * @return Liste de RentalDTO
+     * Version de la collection des locations pour les requêtes conditionnelles (depuis le cache si possible).
+     * Calculée sans charger ni convertir aucune location.
+     * @return RentalCollectionVersion (date de dernière modification et nombre de locations)
      */
-    public List<RentalDTO> getAllRentals() {
-        return rentalRepository.findAll()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public RentalCollectionVersion getRentalCollectionVersion() {
+        return rentalCache.getCollectionVersion(rentalRepository::findCollectionVersion);
+    }
+
+    /**
+     * Récupère une page de locations triées par date de création puis par ID (depuis le cache si possible).
+     * Avec des bornes de prix ou de surface, ou un autre tri, la page est calculée sur l'instantané
+     * en colonnes de {@link RentalFilterIndex}.
+     * Aucune transaction n'est ouverte : un succès de cache ne mobilise pas de connexion.
+     * Les pages sans filtre sont conservées déjà sérialisées, avec leur variante gzip ; une page
+     * filtrée est sérialisée à chaque appel, sans compression.
+     * @param cursor Curseur opaque de la page précédente, ou null pour la première page
+     * @param limit Nombre de locations demandé, ou null pour la taille par défaut (plafonné)
+     * @param filter Bornes et ordre de tri, ou null
+     * @return RentalPageSnapshot : locations et curseur de la page suivante, sérialisés en JSON
+     * @throws IllegalArgumentException si le curseur ou la taille sont invalides
+     * @throws IllegalStateException si l'instantané de filtrage n'est pas encore chargé
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public RentalPageSnapshot getRentalPage(String cursor, Integer limit, RentalFilter filter) {
+        int pageSize = limit != null ? limit : defaultPageSize;
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("La taille de page doit être strictement positive.");
+        }
+        int cappedPageSize = Math.min(pageSize, maxPageSize);
+
+        if (filter != null && !filter.isEmpty()) {
+            RentalColumns.Result result = rentalFilterIndex.query(filter, cursor, cappedPageSize);
+            RentalPage page = new RentalPage(getRentals(result.getIds()), result.getNextCursor());
+            return RentalPageSnapshot.of(page, objectMapper, false);
+        }
+
+        if (cursor == null || cursor.isEmpty()) {
+            return rentalCache.getPage(null, cappedPageSize,
+                    () -> RentalPageSnapshot.of(loadRentalPage(null, cappedPageSize), objectMapper, true));
+        }
+        RentalCursor position = RentalCursor.decode(cursor);
+        return rentalCache.getPage(cursor, cappedPageSize,
+                () -> RentalPageSnapshot.of(loadRentalPage(position, cappedPageSize), objectMapper, true));
+    }
+
+    /**
+     * Recherche plein texte dans le nom et la description des locations, classée par pertinence (BM25).
+     * Seuls les résultats retenus par l'index en mémoire sont lus en base, en une requête.
+     * @param query Texte recherché
+     * @param limit Nombre de résultats demandé, ou null pour la taille par défaut (plafonné)
+     * @return RentalPage contenant les locations trouvées, sans curseur de page suivante
+     * @throws IllegalArgumentException si la requête est vide ou la taille invalide
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public RentalPage searchRentals(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Le texte recherché est obligatoire.");
+        }
+        int size = limit != null ? limit : defaultPageSize;
+        if (size <= 0) {
+            throw new IllegalArgumentException("La taille de page doit être strictement positive.");
+        }
+
+        List<Long> ids = rentalSearchIndex.search(query, Math.min(size, maxPageSize));
+        return new RentalPage(getRentals(ids), null);
+    }
+
+    /**
+     * Locations créées ou modifiées depuis un curseur de synchronisation, lues sur l'index
+     * (updated_at, id) : le coût dépend du nombre de changements, pas de la taille du catalogue.
+     * <p>
+     * updatedAt est fixé avant la validation : une transaction lente peut rendre visible une date
+     * antérieure à des changements déjà synchronisés. Les changements plus récents que le délai de
+     * stabilisation ne sont donc pas encore renvoyés, et le curseur ne le dépasse jamais.
+     * @param since Curseur de la synchronisation précédente, ou null pour tout le catalogue
+     * @param limit Nombre de locations demandé, ou null pour la taille par défaut (plafonné)
+     * @return RentalChanges contenant les locations et le curseur de la synchronisation suivante
+     * @throws IllegalArgumentException si le curseur ou la taille sont invalides
+     */
+    @Transactional(readOnly = true)
+    public RentalChanges getRentalChanges(String since, Integer limit) {
+        int pageSize = limit != null ? limit : defaultPageSize;
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("La taille de page doit être strictement positive.");
+        }
+        pageSize = Math.min(pageSize, maxPageSize);
+
+        RentalCursor position = since == null || since.isEmpty()
+                ? new RentalCursor(new Date(0L), 0L)
+                : RentalCursor.decode(since);
+        Date horizon = new Date(System.currentTimeMillis() - changesSettleMillis);
+
+        List<RentalDTO> rentals = rentalRepository.findChangesAfter(position.getDate(), position.getId(),
+                horizon, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = rentals.size() > pageSize;
+        if (hasMore) {
+            rentals = rentals.subList(0, pageSize);
+        }
+        if (!rentals.isEmpty()) {
+            RentalDTO last = rentals.get(rentals.size() - 1);
+            position = new RentalCursor(last.getUpdatedAtTimestamp(), last.getId());
+        }
+        return new RentalChanges(rentals, position.encode(), hasMore);
+    }
+
+    // Lit les locations dans l'ordre des IDs, depuis le cache puis en une requête pour les absentes
+    private List<RentalDTO> getRentals(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return rentalCache.getRentals(ids, rentalRepository::findDtosByIdIn);
+    }
+
+    // Charge une page depuis la base ; une location de plus que demandé indique l'existence d'une page suivante
+    private RentalPage loadRentalPage(RentalCursor position, int pageSize) {
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<RentalDTO> rentals = position == null
+                ? rentalRepository.findFirstPage(pageable)
+                : rentalRepository.findPageAfter(position.getDate(), position.getId(), pageable);
+
+        String nextCursor = null;
+        if (rentals.size() > pageSize) {
+            rentals = rentals.subList(0, pageSize);
+            RentalDTO last = rentals.get(pageSize - 1);
+            nextCursor = new RentalCursor(last.getCreatedAtTimestamp(), last.getId()).encode();
+        }
+        return new RentalPage(rentals, nextCursor);
+    }
+
+    /**
+     * Exporte tout le catalogue des locations vers un flux de sortie, en mémoire constante.
+     * Les locations sont lues par un curseur en avant seulement, projetées en DTO (aucune entité
+     * gérée n'est conservée) et écrites au fil de l'eau.
+     * @param format Format d'export (NDJSON ou tableau JSON)
+     * @param outputStream Flux de sortie (non fermé par cette méthode)
+     * @return Nombre de locations exportées
+     * @throws IOException si l'écriture échoue (client déconnecté, par exemple)
+     */
+    @Transactional(readOnly = true)
+    public long exportRentals(RentalExportFormat format, OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (Stream<RentalDTO> rentals = rentalRepository.streamAll();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            if (format == RentalExportFormat.JSON) {
+                generator.writeStartArray();
+            }
+
+            Iterator<RentalDTO> iterator = rentals.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+                if (format == RentalExportFormat.NDJSON) {
+                    generator.writeRaw('\n');
+                }
+                if (++count % exportFlushInterval == 0) {
+                    generator.flush();
+                }
+            }
+
+            if (format == RentalExportFormat.JSON) {
+                generator.writeEndArray();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Date de modification d'une location pour les requêtes conditionnelles, sans charger la location.
+     * @param id ID de la location
+     * @return Date de modification, ou null si la location n'existe pas
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Date getRentalVersion(Long id) {
+        return rentalCache.getRentalVersion(id, () -> rentalRepository.findUpdatedAtById(id).orElse(null));
     }
 
     /**
@@ -50,20 +267,39 @@ public class RentalService {
      * @param id ID de la location
      * @return RentalDTO de la location
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public RentalDTO getRental(Long id) {
-        return rentalRepository.findById(id)
-                .map(this::convertToDTO)
-                .orElseThrow(() -> new NoSuchElementException("Location non trouvée avec ID : " + id));
+        RentalDTO rental = rentalCache.getRental(id, () -> rentalRepository.findDtoById(id).orElse(null));
+        if (rental == null) {
+            throw new NoSuchElementException("Location non trouvée avec ID : " + id);
+        }
+        return rental;
     }
 
     /**
-     * Crée une nouvelle location.
+     * Crée une nouvelle location, sans bloquer le thread appelant pendant l'envoi de l'image.
+     * Une fois l'image stockée, la location est enregistrée dans sa propre transaction par l'exécuteur
+     * des tâches asynchrones : aucune connexion n'est détenue pendant l'envoi. Si l'enregistrement
+     * échoue, l'image envoyée reste sans référence et sera supprimée par le balayage des images.
      * @param createRentalDTO DTO contenant les informations de la location
      * @param picture Image de la location
      * @param ownerId ID du propriétaire
-     * @return RentalDTO de la location créée
+     * @return RentalDTO de la location créée, disponible une fois l'image envoyée et la location enregistrée
      */
-    public RentalDTO createRental(CreateRentalDTO createRentalDTO, MultipartFile picture, Long ownerId) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<RentalDTO> createRental(CreateRentalDTO createRentalDTO, MultipartFile picture,
+                                                     Long ownerId) {
+        CompletableFuture<Optional<StoredImage>> pictureUpload = picture != null && !picture.isEmpty()
+                ? imageStorageService.saveImage(picture)
+                : CompletableFuture.completedFuture(Optional.empty());
+
+        // La connexion n'est empruntée qu'après l'envoi, le temps de la seule transaction d'insertion
+        return pictureUpload.thenApplyAsync(image -> transactionTemplate.execute(
+                status -> insertRental(createRentalDTO, image.orElse(null), ownerId)), taskExecutor);
+    }
+
+    // Enregistre la location ; appelée dans une transaction
+    private RentalDTO insertRental(CreateRentalDTO createRentalDTO, StoredImage image, Long ownerId) {
         Rental rental = new Rental();
         rental.setName(createRentalDTO.getName());
         rental.setSurface(createRentalDTO.getSurface());
@@ -72,12 +308,17 @@ public class RentalService {
         rental.setOwner(new User(ownerId));
         rental.setCreatedAt(new Date());
         rental.setUpdatedAt(new Date());
-
-        if (picture != null && !picture.isEmpty()) {
-            rental.setPicture(imageStorageService.saveImage(picture).orElse(null));
+        if (image != null) {
+            imageStorageService.retainImage(image);
+            rental.setPicture(image.getUrl());
+            rental.setPictureVariants(image.getSrcset());
+            rental.setPicturePlaceholder(image.getPlaceholder());
         }
 
-        return convertToDTO(rentalRepository.save(rental));
+        RentalDTO created = convertToDTO(rentalRepository.save(rental));
+        // Le cache n'est invalidé qu'après validation de la transaction
+        eventPublisher.publishEvent(new RentalChangedEvent(RentalChangedEvent.Type.CREATED, created));
+        return created;
     }
 
     /**
@@ -97,7 +338,10 @@ public class RentalService {
         rental.setDescription(rentalUpdates.getDescription());
         rental.setUpdatedAt(new Date());
 
-        return convertToDTO(rentalRepository.save(rental));
+        RentalDTO updated = convertToDTO(rentalRepository.save(rental));
+        // Le cache n'est invalidé qu'après validation de la transaction
+        eventPublisher.publishEvent(new RentalChangedEvent(RentalChangedEvent.Type.UPDATED, updated));
+        return updated;
     }
 
     /**
@@ -110,22 +354,13 @@ public class RentalService {
                 rental.getId(),
                 rental.getName(),
                 rental.getDescription(),
-                (int) rental.getPrice(),
+                rental.getPrice(),
                 rental.getSurface(),
                 rental.getPicture(),
-                convertToLocalDateTime(rental.getCreatedAt()),
-                convertToLocalDateTime(rental.getUpdatedAt()),
+                rental.getPictureVariants(),
+                rental.getPicturePlaceholder(),
+                rental.getCreatedAt(),
+                rental.getUpdatedAt(),
                 rental.getOwner().getId());
     }
-
-    /**
-     * Convertit une Date en LocalDateTime.
-     * @param date Date à convertir
-     * @return LocalDateTime correspondant
-     */
-    private LocalDateTime convertToLocalDateTime(Date date) {
-        return Instant.ofEpochMilli(date.getTime())
-                .atZone(ZoneId.systemDefault())
-                .toLocalDateTime();
-    }
 }
\ No newline at end of file
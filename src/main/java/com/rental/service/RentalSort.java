@@ -0,0 +1,61 @@
+package com.rental.service;
+
+/**
+ * Ordres de tri de la liste des locations. Le tri par défaut (date de création) est celui de la
+ * pagination en base ; les autres ordres sont servis par {@link RentalFilterIndex}.
+ */
+public enum RentalSort {
+
+    /** Date de création puis ID, croissants (ordre par défaut). */
+    CREATED("created", false),
+
+    /** Prix croissant. */
+    PRICE("price", false),
+
+    /** Prix décroissant. */
+    PRICE_DESC("-price", true),
+
+    /** Surface croissante. */
+    SURFACE("surface", false),
+
+    /** Surface décroissante. */
+    SURFACE_DESC("-surface", true);
+
+    private final String parameter;
+    private final boolean descending;
+
+    RentalSort(String parameter, boolean descending) {
+        this.parameter = parameter;
+        this.descending = descending;
+    }
+
+    /**
+     * @return Valeur du paramètre de requête "sort" ("-" en préfixe pour un tri décroissant).
+     */
+    public String getParameter() {
+        return parameter;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Convertit le paramètre de requête "sort".
+     *
+     * @param sort Valeur du paramètre, ou null pour l'ordre par défaut.
+     * @return L'ordre correspondant.
+     * @throws IllegalArgumentException si l'ordre est inconnu.
+     */
+    public static RentalSort fromParameter(String sort) {
+        if (sort == null || sort.isEmpty()) {
+            return CREATED;
+        }
+        for (RentalSort value : values()) {
+            if (value.parameter.equals(sort)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Tri inconnu : " + sort);
+    }
+}
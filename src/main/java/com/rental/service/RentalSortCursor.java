@@ -0,0 +1,62 @@
+package com.rental.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position dans une liste filtrée de locations, pour un ordre de tri donné : valeur de la colonne
+ * triée et ID de la dernière location retournée. Transmise aux clients sous forme opaque :
+ * "tri:valeur:id" encodé en Base64URL.
+ */
+final class RentalSortCursor {
+
+    private final RentalSort sort;
+    private final double value;
+    private final long id;
+
+    RentalSortCursor(RentalSort sort, double value, long id) {
+        this.sort = sort;
+        this.value = value;
+        this.id = id;
+    }
+
+    double getValue() {
+        return value;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    /**
+     * @return Le curseur sous sa forme opaque.
+     */
+    String encode() {
+        String raw = sort.getParameter() + ":" + value + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Décode un curseur opaque.
+     *
+     * @param cursor Curseur reçu du client.
+     * @param sort   Ordre de tri de la requête, qui doit être celui du curseur.
+     * @return La position correspondante.
+     * @throws IllegalArgumentException si le curseur est invalide ou émis pour un autre tri.
+     */
+    static RentalSortCursor decode(String cursor, RentalSort sort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int first = raw.indexOf(':');
+            int last = raw.lastIndexOf(':');
+            if (first < 0 || first == last || !raw.substring(0, first).equals(sort.getParameter())) {
+                throw new IllegalArgumentException("Curseur invalide.");
+            }
+            return new RentalSortCursor(sort, Double.parseDouble(raw.substring(first + 1, last)),
+                    Long.parseLong(raw.substring(last + 1)));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException et erreurs Base64 comprises
+            throw new IllegalArgumentException("Curseur invalide.", e);
+        }
+    }
+}
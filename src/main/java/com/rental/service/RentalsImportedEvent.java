@@ -0,0 +1,33 @@
+package com.rental.service;
+
+import java.util.List;
+
+import com.rental.dto.RentalDTO;
+
+/**
+ * Événement publié par {@link RentalImportService} pour chaque lot de locations importé.
+ * Regroupe les créations pour que les vues en mémoire soient mises à jour une fois par lot,
+ * et non une fois par location ; reçu après la validation du lot.
+ */
+public class RentalsImportedEvent {
+
+    private final List<RentalDTO> rentals;
+
+    public RentalsImportedEvent(List<RentalDTO> rentals) {
+        this.rentals = rentals;
+    }
+
+    /**
+     * @return Les locations créées par le lot.
+     */
+    public List<RentalDTO> getRentals() {
+        return rentals;
+    }
+
+    @Override
+    public String toString() {
+        return "RentalsImportedEvent{" +
+                "rentals=" + rentals.size() +
+                '}';
+    }
+}
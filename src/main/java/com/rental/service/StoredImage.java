@@ -0,0 +1,59 @@
+package com.rental.service;
+
+import java.util.SortedMap;
+
+import com.rental.util.Srcset;
+
+/**
+ * Image stockée dans S3, adressée par l'empreinte de son contenu : URL de l'original, URL des
+ * déclinaisons par largeur et aperçu flou.
+ */
+public final class StoredImage {
+
+    private final String hash;
+    private final String url;
+    private final SortedMap<Integer, String> variants;
+    private final String placeholder;
+
+    StoredImage(String hash, String url, SortedMap<Integer, String> variants, String placeholder) {
+        this.hash = hash;
+        this.url = url;
+        this.variants = variants;
+        this.placeholder = placeholder;
+    }
+
+    /**
+     * @return Empreinte SHA-256 du contenu de l'image originale, en hexadécimal.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * @return URL de l'image originale.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return URL des déclinaisons JPEG, par largeur croissante ; vide si l'image n'a pas été déclinée.
+     */
+    public SortedMap<Integer, String> getVariants() {
+        return variants;
+    }
+
+    /**
+     * @return Les déclinaisons au format srcset, telles que stockées en base, ou null.
+     */
+    public String getSrcset() {
+        return Srcset.format(variants);
+    }
+
+    /**
+     * @return L'aperçu BlurHash, ou null.
+     */
+    public String getPlaceholder() {
+        return placeholder;
+    }
+}
@@ -3,11 +3,10 @@ package com.rental.service;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -15,6 +14,8 @@ import com.rental.dto.UserDTO;
 import com.rental.entity.Role;
 import com.rental.entity.User;
 import com.rental.repository.UserRepository;
+import com.rental.security.AuthenticatedUser;
+import com.rental.security.UserDetailsLoader;
 
 /**
  * Service pour gérer les opérations liées aux utilisateurs.
@@ -23,15 +24,21 @@ import com.rental.repository.UserRepository;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final UserDetailsLoader userDetailsLoader;
+    private final RegisteredEmailIndex registeredEmailIndex;
 
     /**
-     * Constructeur pour injecter le UserRepository et le PasswordEncoder.
+     * Constructeur pour injecter le UserRepository, le service de hachage, le résolveur d'utilisateurs
+     * et l'index des emails enregistrés.
      */
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordHashingService passwordHashingService,
+            UserDetailsLoader userDetailsLoader, RegisteredEmailIndex registeredEmailIndex) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.userDetailsLoader = userDetailsLoader;
+        this.registeredEmailIndex = registeredEmailIndex;
     }
 
     /**
@@ -51,24 +58,9 @@ public class UserService {
         // Récupérer le 'principal' de l'authentication
         Object principal = auth.getPrincipal();
 
-        // Si le principal est une instance de l'objet User de Spring Security
-        if (principal instanceof org.springframework.security.core.userdetails.User) {
-            org.springframework.security.core.userdetails.User userDetails = (org.springframework.security.core.userdetails.User) principal;
-
-            try {
-                // Récupération de l'email ou principal, selon la configuration de Spring
-                // Security
-                String email = userDetails.getUsername(); // Utiliser getUsername() pour obtenir l'email
-
-                // Recherche par email dans la base des utilisateurs
-                User user = userRepository.findByEmail(email)
-                        .orElseThrow(
-                                () -> new UsernameNotFoundException("Utilisateur non trouvé pour l'email : " + email));
-
-                return user.getId();
-            } catch (Exception e) {
-                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Erreur pendant l'authentification.");
-            }
+        // L'ID est porté par le principal construit depuis le JWT : aucun accès à la base
+        if (principal instanceof AuthenticatedUser) {
+            return ((AuthenticatedUser) principal).getId();
         } else {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Utilisateur non authentifié.");
         }
@@ -79,19 +71,46 @@ public class UserService {
      * données.
      */
     public User createUser(String email, String name, String password, Role role) {
-        // Vérifier si l'email existe déjà
-        if (userRepository.existsByEmail(email)) {
+        // Vérifier si l'email existe déjà : la base n'est interrogée que si le filtre ne l'exclut pas
+        if (registeredEmailIndex.mightBeRegistered(email) && userRepository.existsByEmail(email)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Un utilisateur avec cet email existe déjà.");
         }
 
-        // Encoder le mot de passe
-        String encryptedPassword = passwordEncoder.encode(password);
+        // Encoder le mot de passe sur le pool de hachage dédié
+        String encryptedPassword = passwordHashingService.encode(password, "register");
 
         // Créer un nouvel utilisateur
         User newUser = new User(email, name, encryptedPassword, role);
 
-        // Sauvegarder dans la base de données
-        return userRepository.save(newUser);
+        // Sauvegarder dans la base de données ; la contrainte d'unicité sur l'email tranche les cas concurrents
+        User savedUser;
+        try {
+            savedUser = userRepository.save(newUser);
+        } catch (DataIntegrityViolationException e) {
+            registeredEmailIndex.register(email);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Un utilisateur avec cet email existe déjà.");
+        }
+
+        // Enregistrer l'email dans le filtre et invalider le cache des utilisateurs pour cet email et cet ID
+        registeredEmailIndex.register(email);
+        userDetailsLoader.evict(savedUser);
+        return savedUser;
+    }
+
+    /**
+     * Remplace le mot de passe d'un utilisateur par le hash du nouveau mot de passe.
+     */
+    public void updatePassword(Long userId, String newPassword) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Utilisateur non trouvé pour cet ID."));
+
+        // Encoder le mot de passe sur le pool de hachage dédié
+        user.setPassword(passwordHashingService.encode(newPassword, "password"));
+        userRepository.save(user);
+
+        // Le hash en cache n'est plus valide
+        userDetailsLoader.evict(user);
     }
 
     /**
@@ -0,0 +1,132 @@
+package com.rental.util;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Encodeur BlurHash : résume une image en une courte chaîne (une trentaine de caractères) à partir
+ * de laquelle le client dessine un aperçu flou, en attendant le chargement de l'image.
+ * L'image est décomposée sur quelques fonctions cosinus, en lumière linéaire ; la composante continue
+ * et les coefficients quantifiés sont codés en base 83 (voir la spécification de référence, blurha.sh).
+ */
+public final class Blurhash {
+
+    private static final char[] BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~".toCharArray();
+
+    private Blurhash() {
+    }
+
+    /**
+     * Encode une image, de préférence déjà réduite (une trentaine de pixels de large suffit).
+     *
+     * @param image       Image source.
+     * @param componentsX Nombre de composantes horizontales (1 à 9).
+     * @param componentsY Nombre de composantes verticales (1 à 9).
+     * @return La chaîne BlurHash.
+     */
+    public static String encode(BufferedImage image, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("Le nombre de composantes doit être compris entre 1 et 9.");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        // Conversion en lumière linéaire une fois pour toutes
+        float[] red = new float[pixels.length];
+        float[] green = new float[pixels.length];
+        float[] blue = new float[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            red[i] = toLinear((pixels[i] >> 16) & 0xFF);
+            green[i] = toLinear((pixels[i] >> 8) & 0xFF);
+            blue[i] = toLinear(pixels[i] & 0xFF);
+        }
+
+        float[][] factors = new float[componentsX * componentsY][];
+        for (int j = 0; j < componentsY; j++) {
+            double[] cosY = cosines(j, height);
+            for (int i = 0; i < componentsX; i++) {
+                double[] cosX = cosines(i, width);
+                double r = 0;
+                double g = 0;
+                double b = 0;
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        double basis = cosX[x] * cosY[y];
+                        int index = y * width + x;
+                        r += basis * red[index];
+                        g += basis * green[index];
+                        b += basis * blue[index];
+                    }
+                }
+                double scale = (i == 0 && j == 0 ? 1.0 : 2.0) / (width * height);
+                factors[j * componentsX + i] = new float[] { (float) (r * scale), (float) (g * scale), (float) (b * scale) };
+            }
+        }
+
+        StringBuilder hash = new StringBuilder(4 + 2 * factors.length);
+        encode83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+
+        float maximumValue;
+        if (factors.length > 1) {
+            float actualMaximum = 0f;
+            for (int k = 1; k < factors.length; k++) {
+                for (float component : factors[k]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(component));
+                }
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166f;
+            encode83(hash, quantisedMaximum, 1);
+        } else {
+            maximumValue = 1f;
+            encode83(hash, 0, 1);
+        }
+
+        float[] dc = factors[0];
+        encode83(hash, (toSrgb(dc[0]) << 16) + (toSrgb(dc[1]) << 8) + toSrgb(dc[2]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            float[] ac = factors[k];
+            encode83(hash, quantiseAc(ac[0], maximumValue) * 19 * 19
+                    + quantiseAc(ac[1], maximumValue) * 19
+                    + quantiseAc(ac[2], maximumValue), 2);
+        }
+        return hash.toString();
+    }
+
+    private static double[] cosines(int component, int size) {
+        double[] cosines = new double[size];
+        for (int p = 0; p < size; p++) {
+            cosines[p] = Math.cos(Math.PI * component * p / size);
+        }
+        return cosines;
+    }
+
+    private static int quantiseAc(float value, float maximumValue) {
+        double normalised = value / maximumValue;
+        double signedRoot = Math.copySign(Math.sqrt(Math.abs(normalised)), normalised);
+        return (int) Math.max(0, Math.min(18, Math.floor(signedRoot * 9 + 9.5)));
+    }
+
+    private static float toLinear(int value) {
+        float v = value / 255f;
+        return v <= 0.04045f ? v / 12.92f : (float) Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int toSrgb(float value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308
+                ? (int) (v * 12.92 * 255 + 0.5)
+                : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void encode83(StringBuilder hash, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int divisor = 1;
+            for (int k = 0; k < length - i; k++) {
+                divisor *= 83;
+            }
+            hash.append(BASE83[(value / divisor) % 83]);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.rental.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre de Bloom sur des chaînes, sûr en accès concurrent et sans verrou.
+ * Un résultat négatif est certain ; un résultat positif peut être un faux positif.
+ */
+public class ConcurrentBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * Dimensionne le filtre pour un nombre d'éléments et un taux de faux positifs attendus.
+     *
+     * @param expectedInsertions       Nombre d'éléments attendus.
+     * @param falsePositiveProbability Taux de faux positifs visé (entre 0 et 1, exclus).
+     */
+    public ConcurrentBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Le nombre d'éléments attendus doit être positif.");
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("Le taux de faux positifs doit être compris entre 0 et 1.");
+        }
+        long optimalBits = (long) Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8L, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Ajoute une valeur au filtre.
+     *
+     * @param value Valeur à ajouter.
+     */
+    public void put(String value) {
+        long hash = hash64(value);
+        long h1 = mix64(hash);
+        long h2 = mix64(hash ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            setBit(index(h1, h2, i));
+        }
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * Indique si la valeur a pu être ajoutée au filtre.
+     *
+     * @param value Valeur recherchée.
+     * @return false si la valeur n'a certainement jamais été ajoutée.
+     */
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        long h1 = mix64(hash);
+        long h2 = mix64(hash ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(h1, h2, i);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estime le taux de faux positifs actuel à partir du nombre d'insertions.
+     *
+     * @return Taux de faux positifs estimé.
+     */
+    public double expectedFalsePositiveProbability() {
+        double fillRatio = 1 - Math.exp(-(double) hashCount * insertions.get() / bitCount);
+        return Math.pow(fillRatio, hashCount);
+    }
+
+    /**
+     * @return Nombre d'insertions effectuées (doublons compris).
+     */
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    /**
+     * @return Mémoire occupée par le tableau de bits, en octets.
+     */
+    public long getMemoryBytes() {
+        return bitCount / 8;
+    }
+
+    // Double hachage (Kirsch-Mitzenmacher) pour dériver les k positions
+    private long index(long h1, long h2, int i) {
+        return Math.floorMod(h1 + i * h2, bitCount);
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    // FNV-1a 64 bits sur les caractères de la chaîne
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Finaliseur de MurmurHash3 pour bien répartir les bits
+    private static long mix64(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
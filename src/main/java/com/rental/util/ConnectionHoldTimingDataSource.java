@@ -0,0 +1,84 @@
+package com.rental.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Source de données qui mesure la durée de détention de chaque connexion, de son emprunt à sa
+ * restitution au pool, par origine (l'endpoint HTTP en cours, par exemple). Le maximum du timer
+ * révèle une connexion gardée pendant une entrée/sortie distante.
+ */
+public class ConnectionHoldTimingDataSource extends DelegatingDataSource {
+
+    private final MeterRegistry meterRegistry;
+    private final Supplier<String> origin;
+
+    /**
+     * @param targetDataSource Source de données mesurée (le pool de connexions).
+     * @param meterRegistry    Registre du timer "db.connection.hold".
+     * @param origin           Origine de l'emprunt, évaluée à la restitution de la connexion.
+     */
+    public ConnectionHoldTimingDataSource(DataSource targetDataSource, MeterRegistry meterRegistry,
+                                          Supplier<String> origin) {
+        super(targetDataSource);
+        this.meterRegistry = meterRegistry;
+        this.origin = origin;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    // Intercepte close() ; tous les autres appels sont transmis tels quels à la connexion du pool
+    private Connection timed(Connection connection) {
+        long acquired = System.nanoTime();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (closed.compareAndSet(false, true)) {
+                                record(System.nanoTime() - acquired);
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    private void record(long nanos) {
+        Timer.builder("db.connection.hold")
+                .description("Durée de détention d'une connexion JDBC, par origine")
+                .tag("origin", origin.get())
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,95 @@
+package com.rental.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture en flux d'un fichier CSV (RFC 4180), enregistrement par enregistrement : champs séparés
+ * par des virgules, champs entre guillemets pouvant contenir virgules, sauts de ligne et guillemets
+ * doublés. Le lecteur fourni doit être tamponné.
+ */
+public class CsvReader {
+
+    private final Reader reader;
+    private final char separator;
+    private int pending = -2;
+
+    public CsvReader(Reader reader, char separator) {
+        this.reader = reader;
+        this.separator = separator;
+    }
+
+    /**
+     * Lit l'enregistrement suivant ; les lignes vides sont ignorées.
+     *
+     * @return Les champs de l'enregistrement, ou null en fin de flux.
+     * @throws IOException              si la lecture échoue.
+     * @throws IllegalArgumentException si un champ entre guillemets n'est pas terminé.
+     */
+    public List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean empty = true;
+        int c;
+        while ((c = read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+                empty = false;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+                empty = false;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        unread(next);
+                    }
+                }
+                if (!empty || field.length() > 0) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+            } else {
+                field.append((char) c);
+                empty = false;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Champ entre guillemets non terminé.");
+        }
+        if (empty && field.length() == 0) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+}
@@ -0,0 +1,75 @@
+package com.rental.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Réserve bornée de tampons directs de taille fixe, alloués à la demande puis réutilisés.
+ * Les tampons directs sont hors du tas : les remplir et les rendre ne sollicite pas le ramasse-miettes.
+ * Quand tous les tampons sont pris, {@link #acquire()} attend qu'un tampon soit rendu, ce qui borne
+ * aussi la mémoire engagée par les appelants.
+ */
+public class DirectBufferPool {
+
+    private final int bufferSize;
+    private final int capacity;
+    private final BlockingQueue<ByteBuffer> free;
+    private final AtomicInteger allocated = new AtomicInteger();
+
+    /**
+     * @param bufferSize Taille de chaque tampon, en octets.
+     * @param capacity   Nombre maximal de tampons.
+     */
+    public DirectBufferPool(int bufferSize, int capacity) {
+        if (bufferSize <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("La taille et le nombre de tampons doivent être positifs.");
+        }
+        this.bufferSize = bufferSize;
+        this.capacity = capacity;
+        this.free = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Prend un tampon vide, en l'allouant si la réserve n'est pas encore pleine.
+     *
+     * @return Un tampon vide (position 0, limite égale à sa capacité).
+     * @throws InterruptedException si le thread est interrompu pendant l'attente d'un tampon.
+     */
+    public ByteBuffer acquire() throws InterruptedException {
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        if (allocated.incrementAndGet() <= capacity) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        allocated.decrementAndGet();
+        return free.take();
+    }
+
+    /**
+     * Rend un tampon à la réserve. Le tampon ne doit plus être utilisé par l'appelant.
+     *
+     * @param buffer Tampon obtenu par {@link #acquire()}.
+     */
+    public void release(ByteBuffer buffer) {
+        buffer.clear();
+        free.offer(buffer);
+    }
+
+    /**
+     * @return Taille de chaque tampon, en octets.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return Nombre de tampons alloués (pris ou disponibles).
+     */
+    public int getAllocated() {
+        return Math.min(allocated.get(), capacity);
+    }
+}
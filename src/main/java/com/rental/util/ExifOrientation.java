@@ -0,0 +1,131 @@
+package com.rental.util;
+
+import java.awt.geom.AffineTransform;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Lecture de l'orientation EXIF d'un JPEG (balise 0x0112 de l'IFD0), sans bibliothèque tierce.
+ * Les appareils photo enregistrent l'image telle que captée et indiquent sa rotation dans cette
+ * balise : elle doit être appliquée avant de réencoder l'image sans ses métadonnées.
+ */
+public final class ExifOrientation {
+
+    // Les segments APP1 (EXIF) précèdent les données de l'image : inutile de lire plus loin
+    private static final int MAX_HEADER_BYTES = 256 * 1024;
+
+    private ExifOrientation() {
+    }
+
+    /**
+     * @param file Fichier image.
+     * @return L'orientation EXIF (1 à 8), ou 1 si le fichier n'est pas un JPEG ou n'en déclare pas.
+     */
+    public static int read(Path file) {
+        try (InputStream input = Files.newInputStream(file)) {
+            DataInputStream data = new DataInputStream(input);
+            if (data.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            int consumed = 2;
+            while (consumed < MAX_HEADER_BYTES) {
+                int marker = data.readUnsignedShort();
+                // Début des données compressées (SOS) ou marqueur invalide : pas d'EXIF
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA) {
+                    return 1;
+                }
+                int length = data.readUnsignedShort();
+                if (length < 2) {
+                    return 1;
+                }
+                byte[] segment = new byte[length - 2];
+                data.readFully(segment);
+                consumed += 2 + length;
+                if (marker == 0xFFE1 && isExif(segment)) {
+                    return orientation(segment);
+                }
+            }
+        } catch (EOFException e) {
+            // Fichier tronqué : orientation par défaut
+        } catch (IOException e) {
+            // Fichier illisible : l'erreur sera signalée au décodage
+        }
+        return 1;
+    }
+
+    /**
+     * Transformation qui redresse une image de dimensions données selon son orientation EXIF.
+     *
+     * @param orientation Orientation EXIF (1 à 8).
+     * @param width       Largeur de l'image stockée.
+     * @param height      Hauteur de l'image stockée.
+     * @return La transformation, à appliquer en dessinant l'image ; les orientations 5 à 8
+     *         échangent largeur et hauteur.
+     */
+    public static AffineTransform transform(int orientation, int width, int height) {
+        switch (orientation) {
+            case 2: // Miroir horizontal
+                return new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3: // Rotation de 180°
+                return new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4: // Miroir vertical
+                return new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5: // Transposition
+                return new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6: // Rotation de 90° dans le sens horaire
+                return new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7: // Transposition inverse
+                return new AffineTransform(0, -1, -1, 0, height, width);
+            case 8: // Rotation de 90° dans le sens antihoraire
+                return new AffineTransform(0, -1, 1, 0, 0, width);
+            default:
+                return new AffineTransform();
+        }
+    }
+
+    static boolean isExif(byte[] segment) {
+        return segment.length > 14 && segment[0] == 'E' && segment[1] == 'x' && segment[2] == 'i'
+                && segment[3] == 'f' && segment[4] == 0 && segment[5] == 0;
+    }
+
+    // En-tête TIFF après "Exif\0\0" : ordre des octets, 42, position de l'IFD0, puis entrées de 12 octets
+    static int orientation(byte[] segment) {
+        int tiff = 6;
+        boolean littleEndian = segment[tiff] == 'I' && segment[tiff + 1] == 'I';
+        if (!littleEndian && !(segment[tiff] == 'M' && segment[tiff + 1] == 'M')) {
+            return 1;
+        }
+        long ifd = unsigned32(segment, tiff + 4, littleEndian);
+        if (ifd < 8 || tiff + ifd + 2 > segment.length) {
+            return 1;
+        }
+        int entries = unsigned16(segment, tiff + (int) ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = tiff + (int) ifd + 2 + i * 12;
+            if (entry + 12 > segment.length) {
+                return 1;
+            }
+            if (unsigned16(segment, entry, littleEndian) == 0x0112) {
+                int value = unsigned16(segment, entry + 8, littleEndian);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int unsigned16(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static long unsigned32(byte[] data, int offset, boolean littleEndian) {
+        long high = unsigned16(data, offset + (littleEndian ? 2 : 0), littleEndian);
+        long low = unsigned16(data, offset + (littleEndian ? 0 : 2), littleEndian);
+        return (high << 16) | low;
+    }
+}
@@ -0,0 +1,69 @@
+package com.rental.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Découpe un texte français en termes indexables : minuscules, accents et ligatures repliés
+ * ("Élégant" et "elegant" donnent le même terme), mots vides et élisions ("l'", "d'") écartés.
+ */
+public final class FrenchTextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "au", "aux", "avec", "c", "ce", "ces", "d", "dans", "de", "des", "du", "en", "est",
+            "et", "j", "l", "la", "le", "les", "m", "n", "ou", "par", "pour", "qu", "que", "qui",
+            "s", "sa", "se", "ses", "son", "sur", "t", "un", "une");
+
+    private FrenchTextAnalyzer() {
+    }
+
+    /**
+     * @param text Texte à analyser (peut être null).
+     * @return Termes du texte, dans l'ordre, doublons compris.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        // NFD sépare les lettres de leurs accents, qui sont ensuite ignorés (marques combinantes)
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (!Character.isLetterOrDigit(c)) {
+                addTerm(terms, term);
+                continue;
+            }
+            switch (c) {
+                case 'œ':
+                case 'Œ':
+                    term.append("oe");
+                    break;
+                case 'æ':
+                case 'Æ':
+                    term.append("ae");
+                    break;
+                default:
+                    term.append(Character.toLowerCase(c));
+            }
+        }
+        addTerm(terms, term);
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, StringBuilder term) {
+        if (term.length() > 0) {
+            String value = term.toString();
+            if (!STOP_WORDS.contains(value)) {
+                terms.add(value);
+            }
+            term.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.rental.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire avec classement BM25, pour des documents identifiés par une clé longue.
+ * <p>
+ * Chaque document reçoit un numéro interne croissant : les listes de postings restent triées en
+ * ajoutant simplement à la fin, et sont stockées compressées (écart au document précédent puis
+ * fréquence du terme, en entiers de longueur variable). Remplacer un document marque l'ancien
+ * numéro comme supprimé ; les numéros supprimés sont purgés lorsqu'ils deviennent majoritaires.
+ * Les recherches s'exécutent en parallèle, les écritures sont exclusives.
+ */
+public class InvertedIndex {
+
+    // Paramètres BM25 usuels : saturation de la fréquence et normalisation par la longueur
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // En deçà, la purge des documents supprimés ne vaut pas une réécriture des postings
+    private static final int MIN_DELETED_BEFORE_COMPACTION = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docsByKey = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    private long[] keys = new long[1024];
+    private long[] versions = new long[1024];
+    private int[] lengths = new int[1024];
+    private int maxDoc;
+    private int deletedCount;
+    private long liveLength;
+    private long postingBytes;
+
+    /**
+     * Indexe un document, ou remplace sa version précédente.
+     *
+     * @param key     Clé du document.
+     * @param version Version du document (date de modification) : une version plus ancienne que
+     *                celle déjà indexée est ignorée.
+     * @param text    Texte à indexer.
+     * @return false si le document indexé est plus récent.
+     */
+    public boolean put(long key, long version, String text) {
+        // Analyse hors verrou : seule la mise à jour des structures est exclusive
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String term : FrenchTextAnalyzer.tokenize(text)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        int length = 0;
+        for (int frequency : frequencies.values()) {
+            length += frequency;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer previous = docsByKey.get(key);
+            if (previous != null) {
+                if (versions[previous] > version) {
+                    return false;
+                }
+                deleted.set(previous);
+                deletedCount++;
+                liveLength -= lengths[previous];
+            }
+
+            int doc = maxDoc++;
+            ensureCapacity(maxDoc);
+            keys[doc] = key;
+            versions[doc] = version;
+            lengths[doc] = length;
+            liveLength += length;
+            docsByKey.put(key, doc);
+
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                PostingList list = postings.computeIfAbsent(entry.getKey(), term -> new PostingList());
+                int sizeBefore = list.size;
+                list.add(doc, entry.getValue());
+                postingBytes += list.size - sizeBefore;
+            }
+
+            if (deletedCount >= MIN_DELETED_BEFORE_COMPACTION && deletedCount > maxDoc / 2) {
+                compact();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les documents contenant au moins un terme de la requête, classés par score BM25.
+     *
+     * @param query Texte de la requête.
+     * @param limit Nombre maximal de résultats.
+     * @return Clés des documents, du plus pertinent au moins pertinent.
+     */
+    public List<Long> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(FrenchTextAnalyzer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int liveDocs = maxDoc - deletedCount;
+            if (liveDocs == 0) {
+                return Collections.emptyList();
+            }
+            float averageLength = Math.max(1f, (float) liveLength / liveDocs);
+
+            // Évaluation terme par terme : les scores sont cumulés par numéro de document
+            float[] scores = new float[maxDoc];
+            int[] matched = new int[64];
+            int matchedCount = 0;
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                // Les documents supprimés non encore purgés comptent dans df, comme dans la plupart des moteurs
+                int docFrequency = Math.min(list.docFrequency, liveDocs);
+                float idf = (float) Math.log(1 + (liveDocs - docFrequency + 0.5) / (docFrequency + 0.5));
+
+                PostingReader reader = new PostingReader(list);
+                while (reader.next()) {
+                    int doc = reader.doc;
+                    if (deleted.get(doc)) {
+                        continue;
+                    }
+                    float frequency = reader.frequency;
+                    float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    if (scores[doc] == 0f) {
+                        if (matchedCount == matched.length) {
+                            matched = Arrays.copyOf(matched, matchedCount * 2);
+                        }
+                        matched[matchedCount++] = doc;
+                    }
+                    scores[doc] += idf * frequency * (K1 + 1) / (frequency + norm);
+                }
+            }
+
+            int[] top = topDocs(scores, matched, matchedCount, limit);
+            Long[] result = new Long[top.length];
+            for (int i = 0; i < top.length; i++) {
+                result[i] = keys[top[i]];
+            }
+            return Arrays.asList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Nombre de documents indexés (hors versions remplacées).
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return maxDoc - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Nombre de termes distincts.
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Taille des listes de postings compressées, en octets.
+     */
+    public long getPostingBytes() {
+        lock.readLock().lock();
+        try {
+            return postingBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sélectionne les meilleurs documents avec un tas minimum de taille bornée, sur des entiers
+     * primitifs : un document n'y entre que s'il dépasse le plus faible des meilleurs déjà retenus.
+     * À score égal, le document indexé le plus récemment l'emporte.
+     *
+     * @return Numéros des documents, du meilleur score au plus faible.
+     */
+    private static int[] topDocs(float[] scores, int[] matched, int matchedCount, int limit) {
+        int[] heap = new int[Math.min(limit, matchedCount)];
+        int heapSize = 0;
+        for (int i = 0; i < matchedCount; i++) {
+            int doc = matched[i];
+            if (heapSize < heap.length) {
+                heap[heapSize] = doc;
+                siftUp(heap, heapSize++, scores);
+            } else if (isBetter(doc, heap[0], scores)) {
+                heap[0] = doc;
+                siftDown(heap, heapSize, scores);
+            }
+        }
+        // Vidage du tas : le plus faible sort en premier et prend la dernière place
+        int[] sorted = new int[heapSize];
+        while (heapSize > 0) {
+            sorted[heapSize - 1] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, scores);
+        }
+        return sorted;
+    }
+
+    private static boolean isBetter(int a, int b, float[] scores) {
+        return scores[a] != scores[b] ? scores[a] > scores[b] : a > b;
+    }
+
+    private static void siftUp(int[] heap, int index, float[] scores) {
+        int doc = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isBetter(heap[parent], doc, scores)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = doc;
+    }
+
+    private static void siftDown(int[] heap, int size, float[] scores) {
+        if (size == 0) {
+            return;
+        }
+        int doc = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && isBetter(heap[child], heap[child + 1], scores)) {
+                child++;
+            }
+            if (!isBetter(doc, heap[child], scores)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = doc;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newLength = Math.max(capacity, keys.length * 2);
+            keys = Arrays.copyOf(keys, newLength);
+            versions = Arrays.copyOf(versions, newLength);
+            lengths = Arrays.copyOf(lengths, newLength);
+        }
+    }
+
+    // Renumérote les documents vivants en conservant leur ordre, puis réécrit les postings sans les supprimés
+    private void compact() {
+        int[] remap = new int[maxDoc];
+        int next = 0;
+        for (int doc = 0; doc < maxDoc; doc++) {
+            if (deleted.get(doc)) {
+                remap[doc] = -1;
+                continue;
+            }
+            remap[doc] = next;
+            keys[next] = keys[doc];
+            versions[next] = versions[doc];
+            lengths[next] = lengths[doc];
+            next++;
+        }
+
+        postingBytes = 0;
+        Iterator<Map.Entry<String, PostingList>> entries = postings.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, PostingList> entry = entries.next();
+            PostingList compacted = new PostingList();
+            PostingReader reader = new PostingReader(entry.getValue());
+            while (reader.next()) {
+                if (remap[reader.doc] >= 0) {
+                    compacted.add(remap[reader.doc], reader.frequency);
+                }
+            }
+            if (compacted.docFrequency == 0) {
+                entries.remove();
+            } else {
+                compacted.trim();
+                entry.setValue(compacted);
+                postingBytes += compacted.size;
+            }
+        }
+
+        docsByKey.clear();
+        for (int doc = 0; doc < next; doc++) {
+            docsByKey.put(keys[doc], doc);
+        }
+        deleted.clear();
+        deletedCount = 0;
+        maxDoc = next;
+    }
+
+    /**
+     * Liste de postings d'un terme : suite de couples (écart de numéro de document, fréquence),
+     * chaque entier codé sur 7 bits par octet, le bit de poids fort signalant un octet suivant.
+     */
+    static final class PostingList {
+
+        private byte[] data = new byte[8];
+        private int size;
+        private int lastDoc;
+        private int docFrequency;
+
+        void add(int doc, int frequency) {
+            writeVarInt(doc - lastDoc);
+            writeVarInt(frequency);
+            lastDoc = doc;
+            docFrequency++;
+        }
+
+        void trim() {
+            data = Arrays.copyOf(data, size);
+        }
+
+        private void writeVarInt(int value) {
+            if (size + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + 5, data.length * 2));
+            }
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+    }
+
+    /**
+     * Décodage séquentiel d'une liste de postings.
+     */
+    static final class PostingReader {
+
+        private final byte[] data;
+        private final int size;
+        private int position;
+        int doc;
+        int frequency;
+
+        PostingReader(PostingList list) {
+            this.data = list.data;
+            this.size = list.size;
+        }
+
+        boolean next() {
+            if (position >= size) {
+                return false;
+            }
+            doc += readVarInt();
+            frequency = readVarInt();
+            return true;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.rental.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Retrait des métadonnées d'un JPEG en flux, sans décodage : les segments EXIF (position GPS, appareil,
+ * date), XMP, IPTC et les commentaires sont supprimés ; les données de l'image sont recopiées à l'octet
+ * près. Seuls sont conservés les segments utiles à l'affichage : JFIF (APP0), profil de couleurs ICC
+ * (APP2), transformation Adobe (APP14), et l'orientation EXIF, réécrite dans un segment EXIF minimal.
+ */
+public final class JpegMetadata {
+
+    private static final int SOI = 0xFFD8;
+    private static final int SOS = 0xFFDA;
+    private static final int APP0 = 0xFFE0;
+    private static final int APP1 = 0xFFE1;
+    private static final int APP2 = 0xFFE2;
+    private static final int APP14 = 0xFFEE;
+    private static final int APP15 = 0xFFEF;
+    private static final int COM = 0xFFFE;
+
+    private JpegMetadata() {
+    }
+
+    /**
+     * Recopie l'image en retirant ses métadonnées. Un fichier qui n'est pas un JPEG, ou dont les segments
+     * sont mal formés à partir d'un point donné, est recopié tel quel à partir de ce point.
+     *
+     * @param source Image reçue ; le flux est lu jusqu'au bout mais n'est pas fermé.
+     * @param target Destination ; le flux est vidé mais n'est pas fermé.
+     * @throws IOException en cas d'erreur de lecture ou d'écriture.
+     */
+    public static void strip(InputStream source, OutputStream target) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(source));
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(target));
+
+        input.mark(2);
+        if (readUnsignedShortOrEof(input) != SOI) {
+            input.reset();
+            input.transferTo(output);
+            output.flush();
+            return;
+        }
+        output.writeShort(SOI);
+
+        boolean orientationWritten = false;
+        while (true) {
+            input.mark(4);
+            int marker = readUnsignedShortOrEof(input);
+            // Données compressées (SOS), fin d'image ou marqueur sans longueur : le reste est recopié tel quel
+            if (!hasLength(marker)) {
+                input.reset();
+                break;
+            }
+            int length = readUnsignedShortOrEof(input);
+            if (length < 2) {
+                input.reset();
+                break;
+            }
+            byte[] segment = new byte[length - 2];
+            input.readFully(segment);
+
+            if (marker == APP1 && ExifOrientation.isExif(segment)) {
+                // Seule l'orientation est conservée, à la place du premier segment EXIF
+                int orientation = ExifOrientation.orientation(segment);
+                if (!orientationWritten && orientation != 1) {
+                    writeOrientation(output, orientation);
+                    orientationWritten = true;
+                }
+            } else if (keeps(marker)) {
+                output.writeShort(marker);
+                output.writeShort(length);
+                output.write(segment);
+            }
+        }
+        input.transferTo(output);
+        output.flush();
+    }
+
+    // Marqueurs de segment suivis d'une longueur, avant les données compressées : SOF, DHT, DQT, DRI, APPn, COM.
+    // Les octets de bourrage (0xFF répétés) et les marqueurs isolés interrompent l'analyse.
+    private static boolean hasLength(int marker) {
+        return marker >= 0xFFC0 && marker <= 0xFFFE && (marker < 0xFFD0 || marker > SOS);
+    }
+
+    // Segments de métadonnées supprimés : APP1 (XMP), APP3 à APP13 (dont IPTC), APP15 et commentaires
+    private static boolean keeps(int marker) {
+        if (marker == COM) {
+            return false;
+        }
+        if (marker < APP0 || marker > APP15) {
+            return true;
+        }
+        return marker == APP0 || marker == APP2 || marker == APP14;
+    }
+
+    // Segment EXIF minimal : en-tête TIFF gros-boutiste, IFD0 d'une seule entrée (0x0112, SHORT, 1 valeur)
+    private static void writeOrientation(DataOutputStream output, int orientation) throws IOException {
+        output.writeShort(APP1);
+        output.writeShort(2 + 6 + 8 + 2 + 12 + 4);
+        output.write(new byte[] {'E', 'x', 'i', 'f', 0, 0});
+        output.write(new byte[] {'M', 'M'});
+        output.writeShort(42);
+        output.writeInt(8);
+        output.writeShort(1);
+        output.writeShort(0x0112);
+        output.writeShort(3);
+        output.writeInt(1);
+        output.writeShort(orientation);
+        output.writeShort(0);
+        output.writeInt(0);
+    }
+
+    private static int readUnsignedShortOrEof(DataInputStream input) throws IOException {
+        int b0 = input.read();
+        int b1 = input.read();
+        return b0 < 0 || b1 < 0 ? -1 : (b0 << 8) | b1;
+    }
+}
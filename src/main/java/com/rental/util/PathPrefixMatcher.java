@@ -0,0 +1,62 @@
+package com.rental.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reconnaît les chemins commençant par l'un des préfixes donnés, sans allocation.
+ * Les préfixes sont regroupés à la construction selon leur deuxième caractère (celui qui suit
+ * le "/" initial) : seuls les préfixes du bon groupe sont comparés à chaque appel.
+ */
+public final class PathPrefixMatcher {
+
+    private static final int TABLE_SIZE = 128;
+
+    private final String[][] prefixesBySecondChar = new String[TABLE_SIZE][];
+
+    /**
+     * @param prefixes Préfixes de chemin, chacun commençant par "/" suivi d'au moins un caractère ASCII.
+     */
+    public PathPrefixMatcher(String... prefixes) {
+        List<List<String>> groups = new ArrayList<>(TABLE_SIZE);
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (String prefix : prefixes) {
+            if (prefix.length() < 2 || prefix.charAt(0) != '/' || prefix.charAt(1) >= TABLE_SIZE) {
+                throw new IllegalArgumentException("Préfixe de chemin invalide : " + prefix);
+            }
+            groups.get(prefix.charAt(1)).add(prefix);
+        }
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            List<String> group = groups.get(i);
+            prefixesBySecondChar[i] = group.isEmpty() ? null : group.toArray(new String[0]);
+        }
+    }
+
+    /**
+     * Indique si le chemin commence par l'un des préfixes.
+     *
+     * @param path Chemin de la requête.
+     * @return true si un préfixe correspond.
+     */
+    public boolean matches(String path) {
+        if (path == null || path.length() < 2 || path.charAt(0) != '/') {
+            return false;
+        }
+        char second = path.charAt(1);
+        if (second >= TABLE_SIZE) {
+            return false;
+        }
+        String[] candidates = prefixesBySecondChar[second];
+        if (candidates == null) {
+            return false;
+        }
+        for (String prefix : candidates) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
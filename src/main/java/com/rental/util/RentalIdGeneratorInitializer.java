@@ -0,0 +1,32 @@
+package com.rental.util;
+
+import java.util.logging.Logger;
+
+import org.springframework.stereotype.Component;
+
+import com.rental.repository.RentalRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Aligne le générateur d'IDs des locations (table id_generators) sur le plus grand ID existant,
+ * avant toute insertion : les locations créées avec l'ancien AUTO_INCREMENT ne sont pas connues
+ * du générateur.
+ */
+@Component
+public class RentalIdGeneratorInitializer {
+
+    private static final Logger logger = Logger.getLogger(RentalIdGeneratorInitializer.class.getName());
+
+    private final RentalRepository rentalRepository;
+
+    public RentalIdGeneratorInitializer(RentalRepository rentalRepository) {
+        this.rentalRepository = rentalRepository;
+    }
+
+    @PostConstruct
+    public void alignRentalIds() {
+        rentalRepository.alignIdGenerator();
+        logger.info("Générateur d'IDs des locations aligné sur la table rentals.");
+    }
+}
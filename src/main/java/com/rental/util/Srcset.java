@@ -0,0 +1,59 @@
+package com.rental.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Déclinaisons d'une image par largeur, au format de l'attribut HTML srcset : "URL 320w, URL 640w".
+ * C'est sous cette forme qu'elles sont stockées en base, et directement exploitables par un navigateur.
+ */
+public final class Srcset {
+
+    private Srcset() {
+    }
+
+    /**
+     * @param variants URL de chaque déclinaison, par largeur en pixels.
+     * @return La valeur srcset, ou null s'il n'y a aucune déclinaison.
+     */
+    public static String format(SortedMap<Integer, String> variants) {
+        if (variants == null || variants.isEmpty()) {
+            return null;
+        }
+        StringBuilder srcset = new StringBuilder();
+        for (Map.Entry<Integer, String> variant : variants.entrySet()) {
+            if (srcset.length() > 0) {
+                srcset.append(", ");
+            }
+            srcset.append(variant.getValue()).append(' ').append(variant.getKey()).append('w');
+        }
+        return srcset.toString();
+    }
+
+    /**
+     * @param srcset Valeur srcset produite par {@link #format(SortedMap)}, ou null.
+     * @return URL de chaque déclinaison, par largeur croissante ; vide si srcset est null ou mal formé.
+     */
+    public static SortedMap<Integer, String> parse(String srcset) {
+        if (srcset == null || srcset.isBlank()) {
+            return Collections.emptySortedMap();
+        }
+        SortedMap<Integer, String> variants = new TreeMap<>();
+        for (String candidate : srcset.split(",")) {
+            String trimmed = candidate.trim();
+            int space = trimmed.lastIndexOf(' ');
+            if (space <= 0 || !trimmed.endsWith("w")) {
+                continue;
+            }
+            try {
+                variants.put(Integer.parseInt(trimmed.substring(space + 1, trimmed.length() - 1)),
+                        trimmed.substring(0, space));
+            } catch (NumberFormatException e) {
+                // Candidat ignoré
+            }
+        }
+        return variants;
+    }
+}
@@ -0,0 +1,163 @@
+package com.rental.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.rental.entity.Role;
+import com.rental.repository.UserRepository;
+import com.rental.security.AuthenticatedUser;
+import com.rental.security.JwtKeyRing;
+import com.rental.security.TokenEpochRegistry;
+import com.rental.security.UserDetailsLoader;
+import com.rental.service.JwtService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Un token rejeté (expiré, de rafraîchissement ou révoqué) vaut un 401 sur une route protégée, mais
+ * n'empêche pas d'atteindre les routes publiques de connexion et de rafraîchissement.
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final long USER_ID = 42L;
+    private static final String EMAIL = "user@example.com";
+
+    private JwtService jwtService;
+    private JwtService expiredJwtService;
+    private TokenEpochRegistry tokenEpochRegistry;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtKeyRing keyRing = new JwtKeyRing(Base64.getEncoder().encodeToString(new byte[32]), "", true);
+        jwtService = new JwtService(keyRing, TimeUnit.DAYS.toMillis(14), Duration.ofMinutes(15), 100, meterRegistry);
+        // Même trousseau, tokens d'accès expirés dès leur émission
+        expiredJwtService = new JwtService(keyRing, TimeUnit.DAYS.toMillis(14), Duration.ofMinutes(-1), 100,
+                meterRegistry);
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenEpochById(USER_ID)).thenReturn(Optional.of(1));
+        tokenEpochRegistry = new TokenEpochRegistry(userRepository, Duration.ofSeconds(30), meterRegistry);
+
+        // Les tokens portent l'identité : le chargement de l'utilisateur n'est pas sollicité
+        filter = new JwtAuthenticationFilter(jwtService, mock(UserDetailsLoader.class), tokenEpochRegistry,
+                new JwtAuthenticationEntryPoint());
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validAccessTokenAuthenticatesProtectedRoute() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter("/api/rentals", accessToken(), chain);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertNotNull(chain.getRequest());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(USER_ID, ((AuthenticatedUser) authentication.getPrincipal()).getId());
+    }
+
+    @Test
+    void expiredTokenIsRejectedOnProtectedRoute() throws Exception {
+        assertRejected("/api/rentals", expiredJwtService.generateAccessToken(USER_ID, EMAIL, Role.USER, 0));
+    }
+
+    @Test
+    void refreshTokenIsRejectedOnProtectedRoute() throws Exception {
+        assertRejected("/api/auth/me", refreshToken());
+    }
+
+    @Test
+    void revokedTokenIsRejectedOnProtectedRoute() throws Exception {
+        String token = accessToken();
+        tokenEpochRegistry.revokeAll(USER_ID);
+
+        assertRejected("/api/rentals", token);
+    }
+
+    @Test
+    void expiredTokenPassesAnonymouslyOnPublicRoutes() throws Exception {
+        String token = expiredJwtService.generateAccessToken(USER_ID, EMAIL, Role.USER, 0);
+
+        assertAnonymous("/api/auth/login", token);
+        assertAnonymous("/api/auth/register", token);
+        assertAnonymous("/api/auth/refresh", token);
+    }
+
+    @Test
+    void refreshTokenPassesAnonymouslyOnPublicRoutes() throws Exception {
+        assertAnonymous("/api/auth/refresh", refreshToken());
+        assertAnonymous("/api/auth/login", refreshToken());
+    }
+
+    @Test
+    void revokedTokenPassesAnonymouslyOnPublicRoutes() throws Exception {
+        String token = accessToken();
+        tokenEpochRegistry.revokeAll(USER_ID);
+
+        assertAnonymous("/api/auth/login", token);
+        assertAnonymous("/api/auth/refresh", token);
+    }
+
+    @Test
+    void malformedTokenPassesAnonymouslyOnPublicRoutes() throws Exception {
+        assertAnonymous("/api/auth/login", accessToken().replace('.', '!'));
+    }
+
+    private void assertRejected(String path, String token) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter(path, token, chain);
+
+        assertEquals(HttpServletResponse.SC_UNAUTHORIZED, response.getStatus(), path);
+        assertNull(chain.getRequest(), path);
+        assertNull(SecurityContextHolder.getContext().getAuthentication(), path);
+    }
+
+    private void assertAnonymous(String path, String token) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter(path, token, chain);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus(), path);
+        assertNotNull(chain.getRequest(), path);
+        assertNull(SecurityContextHolder.getContext().getAuthentication(), path);
+    }
+
+    private MockHttpServletResponse filter(String path, String token, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private String accessToken() {
+        return jwtService.generateAccessToken(USER_ID, EMAIL, Role.USER, tokenEpochRegistry.currentEpoch(USER_ID));
+    }
+
+    private String refreshToken() {
+        return jwtService.generateRefreshToken(USER_ID, EMAIL, Role.USER, tokenEpochRegistry.currentEpoch(USER_ID));
+    }
+}
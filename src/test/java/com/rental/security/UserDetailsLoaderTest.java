@@ -0,0 +1,98 @@
+package com.rental.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.rental.entity.Role;
+import com.rental.entity.User;
+import com.rental.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserDetailsLoaderTest {
+
+    private static final String EMAIL = "alice@example.com";
+
+    private UserRepository userRepository;
+    private UserDetailsLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        loader = new UserDetailsLoader(userRepository, 100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void cachesLoadedUserUntilEvicted() {
+        User user = user("old-hash");
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        loader.loadUserByUsername(EMAIL);
+        loader.loadUserByUsername(EMAIL);
+        loader.loadUserById(1L);
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+
+        user.setPassword("new-hash");
+        loader.evict(user);
+        assertEquals("new-hash", loader.loadUserByUsername(EMAIL).getPassword());
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    // Connexion qui lit l'ancien utilisateur, puis changement de mot de passe avant la mise en cache
+    @Test
+    void loadStartedBeforePasswordChangeDoesNotCacheOldHash() {
+        AtomicReference<User> database = new AtomicReference<>(user("old-hash"));
+        AtomicBoolean passwordChanged = new AtomicBoolean();
+        when(userRepository.findByEmail(EMAIL)).thenAnswer(invocation -> {
+            User read = database.get();
+            // updatePassword enregistre le nouveau hash et invalide le cache juste après cette lecture
+            if (passwordChanged.compareAndSet(false, true)) {
+                database.set(user("new-hash"));
+                loader.evict(database.get());
+            }
+            return Optional.of(read);
+        });
+        when(userRepository.findById(1L)).thenAnswer(invocation -> Optional.of(database.get()));
+
+        // La connexion en cours voit encore l'ancien hash, mais ne le remet pas en cache
+        assertEquals("old-hash", loader.loadUserByUsername(EMAIL).getPassword());
+        assertEquals("new-hash", loader.loadUserByUsername(EMAIL).getPassword());
+        assertEquals("new-hash", loader.loadUserById(1L).getPassword());
+    }
+
+    @Test
+    void loadByIdStartedBeforePasswordChangeDoesNotCacheOldHash() {
+        AtomicReference<User> database = new AtomicReference<>(user("old-hash"));
+        AtomicBoolean passwordChanged = new AtomicBoolean();
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            User read = database.get();
+            if (passwordChanged.compareAndSet(false, true)) {
+                database.set(user("new-hash"));
+                loader.evict(database.get());
+            }
+            return Optional.of(read);
+        });
+        when(userRepository.findByEmail(EMAIL)).thenAnswer(invocation -> Optional.of(database.get()));
+
+        assertEquals("old-hash", loader.loadUserById(1L).getPassword());
+        assertEquals("new-hash", loader.loadUserById(1L).getPassword());
+        assertEquals("new-hash", loader.loadUserByUsername(EMAIL).getPassword());
+    }
+
+    private static User user(String passwordHash) {
+        User user = new User(EMAIL, "Alice", passwordHash, Role.USER);
+        user.setId(1L);
+        return user;
+    }
+}
@@ -0,0 +1,258 @@
+package com.rental.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compare chaque instantané, construit ou mis à jour par insertion, modification ou fusion d'un lot,
+ * à un filtrage et un tri naïfs des mêmes locations, en parcourant toutes les pages avec leurs curseurs.
+ */
+class RentalColumnsTest {
+
+    private final Random random = new Random(42);
+    private final Map<Long, Row> rows = new HashMap<>();
+    private long nextId = 1;
+
+    @Test
+    void emptySnapshotReturnsNothing() {
+        RentalColumns.Result result = RentalColumns.EMPTY.query(
+                new RentalFilter(null, null, null, null, RentalSort.PRICE), null, 10);
+
+        assertEquals(List.of(), result.getIds());
+        assertEquals(null, result.getNextCursor());
+    }
+
+    @Test
+    void builtSnapshotMatchesBruteForce() {
+        for (int i = 0; i < 300; i++) {
+            add(randomRow());
+        }
+        assertMatchesBruteForce(build());
+    }
+
+    @Test
+    void insertedRentalsMatchBruteForce() {
+        RentalColumns columns = RentalColumns.EMPTY;
+        for (int i = 0; i < 200; i++) {
+            long id = nextId++;
+            Row row = randomRow();
+            rows.put(id, row);
+            columns = columns.withRental(id, row.created, row.price, row.surface);
+            if (i % 20 == 0) {
+                assertMatchesBruteForce(columns);
+            }
+        }
+        assertEquals(rows.size(), columns.size());
+        assertMatchesBruteForce(columns);
+    }
+
+    @Test
+    void updatedRentalsMatchBruteForce() {
+        for (int i = 0; i < 200; i++) {
+            add(randomRow());
+        }
+        RentalColumns columns = build();
+        for (int i = 0; i < 300; i++) {
+            long id = 1 + random.nextInt(rows.size());
+            // Une modification garde la date de création
+            Row row = new Row(rows.get(id).created, randomPrice(), randomSurface());
+            rows.put(id, row);
+            columns = columns.withRental(id, row.created, row.price, row.surface);
+            if (i % 30 == 0) {
+                assertMatchesBruteForce(columns);
+            }
+        }
+        assertEquals(rows.size(), columns.size());
+        assertMatchesBruteForce(columns);
+    }
+
+    @Test
+    void mergedBatchesMatchBruteForce() {
+        for (int i = 0; i < 100; i++) {
+            add(randomRow());
+        }
+        RentalColumns columns = build();
+        for (int batch = 0; batch < 10; batch++) {
+            int size = random.nextInt(40);
+            long[] ids = new long[size];
+            long[] created = new long[size];
+            double[] prices = new double[size];
+            int[] surfaces = new int[size];
+            for (int i = 0; i < size; i++) {
+                // Lot non trié, dont les dates recoupent celles des locations existantes
+                ids[i] = nextId++;
+                Row row = randomRow();
+                rows.put(ids[i], row);
+                created[i] = row.created;
+                prices[i] = row.price;
+                surfaces[i] = row.surface;
+            }
+            shuffle(ids, created, prices, surfaces);
+            columns = columns.withRentals(ids, created, prices, surfaces);
+            assertEquals(rows.size(), columns.size());
+            assertMatchesBruteForce(columns);
+        }
+    }
+
+    @Test
+    void mixedUpdatesMatchBruteForce() {
+        RentalColumns columns = RentalColumns.EMPTY;
+        for (int i = 0; i < 500; i++) {
+            int action = random.nextInt(3);
+            if (action == 0 || rows.isEmpty()) {
+                long id = nextId++;
+                Row row = randomRow();
+                rows.put(id, row);
+                columns = columns.withRental(id, row.created, row.price, row.surface);
+            } else if (action == 1) {
+                long id = 1 + random.nextInt(rows.size());
+                Row row = new Row(rows.get(id).created, randomPrice(), randomSurface());
+                rows.put(id, row);
+                columns = columns.withRental(id, row.created, row.price, row.surface);
+            } else {
+                long id = nextId++;
+                Row row = randomRow();
+                rows.put(id, row);
+                columns = columns.withRentals(new long[] {id}, new long[] {row.created},
+                        new double[] {row.price}, new int[] {row.surface});
+            }
+        }
+        assertMatchesBruteForce(columns);
+    }
+
+    // Toutes les combinaisons de tri, de bornes et de taille de page
+    private void assertMatchesBruteForce(RentalColumns columns) {
+        for (RentalSort sort : RentalSort.values()) {
+            for (int i = 0; i < 6; i++) {
+                Double minPrice = random.nextBoolean() ? null : randomPrice();
+                Double maxPrice = random.nextBoolean() ? null : randomPrice();
+                Integer minSurface = random.nextBoolean() ? null : randomSurface();
+                Integer maxSurface = random.nextBoolean() ? null : randomSurface();
+                RentalFilter filter = new RentalFilter(minPrice, maxPrice, minSurface, maxSurface, sort);
+                int limit = 1 + random.nextInt(25);
+                assertEquals(bruteForce(filter), allPages(columns, filter, limit),
+                        () -> sort + " prix [" + minPrice + ", " + maxPrice + "] surface [" + minSurface
+                                + ", " + maxSurface + "] par " + limit);
+            }
+        }
+    }
+
+    private static List<Long> allPages(RentalColumns columns, RentalFilter filter, int limit) {
+        List<Long> ids = new ArrayList<>();
+        RentalSortCursor cursor = null;
+        while (true) {
+            RentalColumns.Result page = columns.query(filter, cursor, limit);
+            ids.addAll(page.getIds());
+            if (page.getNextCursor() == null) {
+                return ids;
+            }
+            assertEquals(limit, page.getIds().size());
+            cursor = RentalSortCursor.decode(page.getNextCursor(), filter.getSort());
+        }
+    }
+
+    private List<Long> bruteForce(RentalFilter filter) {
+        Comparator<Map.Entry<Long, Row>> order;
+        switch (filter.getSort()) {
+            case PRICE:
+            case PRICE_DESC:
+                order = Comparator.comparingDouble(entry -> entry.getValue().price);
+                break;
+            case SURFACE:
+            case SURFACE_DESC:
+                order = Comparator.comparingInt(entry -> entry.getValue().surface);
+                break;
+            default:
+                order = Comparator.comparingLong(entry -> entry.getValue().created);
+        }
+        order = order.thenComparing(Map.Entry::getKey);
+        if (filter.getSort().isDescending()) {
+            order = order.reversed();
+        }
+
+        List<Long> ids = new ArrayList<>();
+        rows.entrySet().stream()
+                .filter(entry -> entry.getValue().price >= filter.getMinPrice()
+                        && entry.getValue().price <= filter.getMaxPrice()
+                        && entry.getValue().surface >= filter.getMinSurface()
+                        && entry.getValue().surface <= filter.getMaxSurface())
+                .sorted(order)
+                .forEach(entry -> ids.add(entry.getKey()));
+        return ids;
+    }
+
+    private RentalColumns build() {
+        List<Map.Entry<Long, Row>> sorted = new ArrayList<>(rows.entrySet());
+        sorted.sort(Comparator.<Map.Entry<Long, Row>>comparingLong(entry -> entry.getValue().created)
+                .thenComparing(Map.Entry::getKey));
+        int size = sorted.size();
+        // Tableaux plus grands que nécessaire, comme ceux remplis par le chargement
+        long[] ids = new long[size + 7];
+        long[] created = new long[size + 7];
+        double[] prices = new double[size + 7];
+        int[] surfaces = new int[size + 7];
+        for (int i = 0; i < size; i++) {
+            ids[i] = sorted.get(i).getKey();
+            created[i] = sorted.get(i).getValue().created;
+            prices[i] = sorted.get(i).getValue().price;
+            surfaces[i] = sorted.get(i).getValue().surface;
+        }
+        return RentalColumns.build(ids, created, prices, surfaces, size);
+    }
+
+    private void add(Row row) {
+        rows.put(nextId++, row);
+    }
+
+    // Petites plages de valeurs : beaucoup d'égalités, départagées par l'ID
+    private Row randomRow() {
+        return new Row(1_000L * random.nextInt(50), randomPrice(), randomSurface());
+    }
+
+    private double randomPrice() {
+        return 400 + random.nextInt(40) * 2.5;
+    }
+
+    private int randomSurface() {
+        return 10 + random.nextInt(30);
+    }
+
+    private void shuffle(long[] ids, long[] created, double[] prices, int[] surfaces) {
+        for (int i = ids.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+            long date = created[i];
+            created[i] = created[j];
+            created[j] = date;
+            double price = prices[i];
+            prices[i] = prices[j];
+            prices[j] = price;
+            int surface = surfaces[i];
+            surfaces[i] = surfaces[j];
+            surfaces[j] = surface;
+        }
+    }
+
+    private static final class Row {
+
+        private final long created;
+        private final double price;
+        private final int surface;
+
+        Row(long created, double price, int surface) {
+            this.created = created;
+            this.price = price;
+            this.surface = surface;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.rental.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RentalCursorTest {
+
+    @ParameterizedTest
+    @CsvSource({"1700000000000, 42", "0, 1", "-1, 7", "9223372036854775807, 9223372036854775807"})
+    void roundTrips(long millis, long id) {
+        RentalCursor decoded = RentalCursor.decode(new RentalCursor(new Date(millis), id).encode());
+
+        assertEquals(new Date(millis), decoded.getDate());
+        assertEquals(id, decoded.getId());
+    }
+
+    @Test
+    void encodesAsUnpaddedBase64Url() {
+        String cursor = new RentalCursor(new Date(1700000000000L), 42L).encode();
+
+        assertEquals("1700000000000:42", new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        assertEquals(-1, cursor.indexOf('='));
+    }
+
+    // Contenus décodables mais qui ne sont pas une position
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "1700000000000",
+            "1700000000000:",
+            ":42",
+            "17x0000000000:42",
+            "1700000000000:4x2",
+            "1700000000000:42:7",
+            "1700000000000;42",
+            " 1700000000000:42",
+            "1700000000000:42 ",
+            "1700000000000:99999999999999999999",
+            "1700000000000:\u0664\u0662"
+    })
+    void rejectsInvalidContent(String raw) {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> RentalCursor.decode(cursor));
+    }
+
+    // Curseurs altérés : caractères hors Base64URL, Base64 standard, longueur impossible
+    @ParameterizedTest
+    @ValueSource(strings = {"!!!!", "MTcw MDA6NDI", "MTcwMDAwMDAwMDAwMDo0Mg+", "MTcwMDAwMDAwMDAwMDo0Mg/", "M", "MTcwM"})
+    void rejectsTamperedCursor(String cursor) {
+        assertThrows(IllegalArgumentException.class, () -> RentalCursor.decode(cursor));
+    }
+
+    @Test
+    void rejectsTruncatedCursor() {
+        String cursor = new RentalCursor(new Date(1700000000000L), 42L).encode();
+
+        // Coupé au milieu d'un quantum Base64
+        assertThrows(IllegalArgumentException.class, () -> RentalCursor.decode(cursor.substring(0, cursor.length() - 1)));
+        // Coupé avant l'ID : plus de séparateur
+        int beforeSeparator = "1700000000000".length() * 4 / 3;
+        assertThrows(IllegalArgumentException.class, () -> RentalCursor.decode(cursor.substring(0, beforeSeparator)));
+    }
+}
@@ -0,0 +1,100 @@
+package com.rental.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BlurhashTest {
+
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    // Hash d'une image noire avec 4 x 3 composantes, tel que produit par l'implémentation de référence :
+    // composante continue nulle, coefficients AC nuls (9 sur chaque canal : 9 * 19 * 19 + 9 * 19 + 9 = "fQ")
+    @Test
+    void encodesBlackImageLikeReferenceImplementation() {
+        assertEquals("L00000fQfQfQfQfQfQfQfQfQfQfQ", Blurhash.encode(solid(32, 24, 0x000000), 4, 3));
+    }
+
+    // Image unie : la composante continue restitue exactement la couleur (aller-retour en lumière linéaire)
+    @ParameterizedTest
+    @ValueSource(ints = {0xFFFFFF, 0xFF0000, 0x00FF00, 0x0000FF, 0x336699, 0x808080, 0x010203})
+    void encodesSolidColourInDcComponent(int rgb) {
+        String hash = Blurhash.encode(solid(20, 15, rgb), 4, 3);
+
+        assertEquals(28, hash.length());
+        assertEquals("L", hash.substring(0, 1));
+        assertEquals(base83(rgb, 4), hash.substring(2, 6));
+    }
+
+    @Test
+    void encodesComponentCountsInHeader() {
+        String single = Blurhash.encode(solid(8, 8, 0x336699), 1, 1);
+        assertEquals("00" + base83(0x336699, 4), single);
+
+        String full = Blurhash.encode(solid(8, 8, 0x336699), 9, 9);
+        assertEquals(1 + 1 + 4 + 2 * 80, full.length());
+        assertEquals(8 + 8 * 9, BASE83.indexOf(full.charAt(0)));
+    }
+
+    // Moitié gauche blanche, moitié droite noire : premier coefficient horizontal positif et dominant.
+    // Les cosinus étant échantillonnés aux pixels, comme dans la référence, les autres ne sont pas exactement nuls
+    @Test
+    void encodesHorizontalEdgeInFirstHorizontalComponent() {
+        BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 32; y++) {
+            for (int x = 0; x < 16; x++) {
+                image.setRGB(x, y, 0xFFFFFF);
+            }
+        }
+        String hash = Blurhash.encode(image, 4, 3);
+
+        assertTrue(BASE83.indexOf(hash.charAt(1)) > 0, "Amplitude maximale non nulle");
+        int[] horizontal = decodeAc(hash, 1);
+        int[] vertical = decodeAc(hash, 4);
+        for (int channel = 0; channel < 3; channel++) {
+            assertEquals(18, horizontal[channel], "Composante (1, 0) maximale");
+            assertTrue(Math.abs(vertical[channel] - 9) < horizontal[channel] - 9, "Composante (0, 1) faible");
+        }
+    }
+
+    @Test
+    void rejectsInvalidComponentCounts() {
+        BufferedImage image = solid(4, 4, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> Blurhash.encode(image, 0, 3));
+        assertThrows(IllegalArgumentException.class, () -> Blurhash.encode(image, 4, 10));
+    }
+
+    private static BufferedImage solid(int width, int height, int rgb) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, rgb);
+            }
+        }
+        return image;
+    }
+
+    // Valeurs quantifiées (0 à 18) des trois canaux du k-ième coefficient AC
+    private static int[] decodeAc(String hash, int k) {
+        int start = 6 + 2 * (k - 1);
+        int value = BASE83.indexOf(hash.charAt(start)) * 83 + BASE83.indexOf(hash.charAt(start + 1));
+        return new int[] { value / (19 * 19), (value / 19) % 19, value % 19 };
+    }
+
+    private static String base83(int value, int length) {
+        char[] digits = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            digits[i] = BASE83.charAt(value % 83);
+            value /= 83;
+        }
+        return new String(digits);
+    }
+}
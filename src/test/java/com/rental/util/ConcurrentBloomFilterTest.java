@@ -0,0 +1,97 @@
+package com.rental.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ConcurrentBloomFilterTest {
+
+    @Test
+    void hasNoFalseNegatives() {
+        ConcurrentBloomFilter filter = new ConcurrentBloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put(email(i));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain(email(i)), email(i));
+        }
+        assertEquals(100_000, filter.getInsertions());
+    }
+
+    @Test
+    void hasNoFalseNegativesUnderConcurrentInsertions() throws InterruptedException {
+        ConcurrentBloomFilter filter = new ConcurrentBloomFilter(200_000, 0.01);
+        int threads = 8;
+        int perThread = 25_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t * perThread;
+            Thread writer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = first; i < first + perThread; i++) {
+                    filter.put(email(i));
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        for (int i = 0; i < threads * perThread; i++) {
+            assertTrue(filter.mightContain(email(i)), email(i));
+        }
+        assertEquals(threads * perThread, filter.getInsertions());
+    }
+
+    // Taux mesuré sur 200 000 valeurs jamais ajoutées, une fois le filtre rempli comme prévu
+    @ParameterizedTest
+    @CsvSource({"100000, 0.01", "100000, 0.001", "10000, 0.05"})
+    void falsePositiveRateIsCloseToConfiguredProbability(long expectedInsertions, double probability) {
+        ConcurrentBloomFilter filter = new ConcurrentBloomFilter(expectedInsertions, probability);
+        for (int i = 0; i < expectedInsertions; i++) {
+            filter.put(email(i));
+        }
+
+        int trials = 200_000;
+        int falsePositives = 0;
+        for (int i = 0; i < trials; i++) {
+            if (filter.mightContain("absent-" + i + "@example.org")) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / trials;
+        assertTrue(rate > probability * 0.5 && rate < probability * 1.5,
+                () -> "Taux mesuré " + rate + " pour " + probability);
+        double estimated = filter.expectedFalsePositiveProbability();
+        assertTrue(estimated > probability * 0.5 && estimated < probability * 1.5,
+                () -> "Taux estimé " + estimated + " pour " + probability);
+    }
+
+    @Test
+    void rejectsInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBloomFilter(1000, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBloomFilter(1000, 1));
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+}
@@ -0,0 +1,132 @@
+package com.rental.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+    @Test
+    void readsSimpleRecords() throws IOException {
+        assertEquals(List.of(List.of("nom", "prix"), List.of("Studio", "450")), readAll("nom,prix\nStudio,450\n"));
+    }
+
+    @Test
+    void keepsCommasInsideQuotes() throws IOException {
+        assertEquals(List.of(List.of("Paris, 11e", "450")), readAll("\"Paris, 11e\",450"));
+    }
+
+    @Test
+    void unescapesDoubledQuotes() throws IOException {
+        assertEquals(List.of(List.of("Le \"Grand\" loft", "x")), readAll("\"Le \"\"Grand\"\" loft\",x"));
+        assertEquals(List.of(List.of("\"", "")), readAll("\"\"\"\",\"\""));
+    }
+
+    @Test
+    void splitsRecordsOnCrlfLfAndCr() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e"), List.of("f")),
+                readAll("a,b\r\nc,d\ne\rf\r\n"));
+    }
+
+    @Test
+    void keepsLineBreaksInsideQuotes() throws IOException {
+        assertEquals(List.of(List.of("ligne 1\nligne 2", "x"), List.of("ligne 3\r\nligne 4"), List.of("y")),
+                readAll("\"ligne 1\nligne 2\",x\r\n\"ligne 3\r\nligne 4\"\r\ny"));
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        assertEquals(List.of(List.of("", "", ""), List.of("a", ""), List.of("")), readAll(",,\na,\n\"\"\n"));
+    }
+
+    @Test
+    void skipsBlankLines() throws IOException {
+        assertEquals(List.of(List.of("a"), List.of("b")), readAll("\n\r\na\n\n\r\nb\n\n"));
+        assertEquals(List.of(), readAll(""));
+    }
+
+    @Test
+    void takesQuoteInsideUnquotedFieldLiterally() throws IOException {
+        assertEquals(List.of(List.of("a\"b", "c")), readAll("a\"b,c"));
+    }
+
+    @Test
+    void usesGivenSeparator() throws IOException {
+        CsvReader reader = new CsvReader(new BufferedReader(new StringReader("a;\"b;c\",d\n")), ';');
+
+        assertEquals(List.of("a", "b;c,d"), reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void rejectsUnterminatedQuotedField() throws IOException {
+        CsvReader reader = new CsvReader(new BufferedReader(new StringReader("a,b\n\"c,d\ne")), ',');
+
+        assertEquals(List.of("a", "b"), reader.readRecord());
+        assertThrows(IllegalArgumentException.class, reader::readRecord);
+    }
+
+    // Enregistrements aléatoires écrits selon la RFC 4180 puis relus
+    @Test
+    void readsBackWhatRfc4180Writes() throws IOException {
+        String alphabet = "ab é,\"\r\n";
+        Random random = new Random(42);
+        List<List<String>> records = new ArrayList<>();
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            List<String> record = new ArrayList<>();
+            int fields = 1 + random.nextInt(5);
+            for (int f = 0; f < fields; f++) {
+                StringBuilder field = new StringBuilder();
+                for (int j = random.nextInt(8); j > 0; j--) {
+                    field.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                record.add(field.toString());
+            }
+            // Un enregistrement d'un seul champ vide est une ligne vide, ignorée à la lecture
+            if (fields == 1 && record.get(0).isEmpty()) {
+                continue;
+            }
+            records.add(record);
+            csv.append(write(record)).append("\r\n");
+        }
+
+        assertEquals(records, readAll(csv.toString()));
+    }
+
+    private static String write(List<String> record) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < record.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            String field = record.get(i);
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\r') >= 0
+                    || field.indexOf('\n') >= 0) {
+                line.append('"').append(field.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(field);
+            }
+        }
+        return line.toString();
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        CsvReader reader = new CsvReader(new BufferedReader(new StringReader(csv)), ',');
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
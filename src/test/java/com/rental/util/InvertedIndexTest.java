@@ -0,0 +1,138 @@
+package com.rental.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class InvertedIndexTest {
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void findsDocumentsContainingAnyTerm() {
+        index.put(1L, 1L, "Maison avec piscine");
+        index.put(2L, 1L, "Appartement en centre-ville");
+        index.put(3L, 1L, "Studio proche du centre");
+
+        assertEquals(List.of(1L), index.search("piscine", 10));
+        assertEquals(Set.of(2L, 3L), new HashSet<>(index.search("centre", 10)));
+        assertEquals(List.of(), index.search("garage", 10));
+        assertEquals(List.of(), index.search("de la", 10));
+    }
+
+    @Test
+    void foldsCaseAndAccents() {
+        index.put(1L, 1L, "Élégant château");
+
+        assertEquals(List.of(1L), index.search("elegant", 10));
+        assertEquals(List.of(1L), index.search("CHATEAU", 10));
+    }
+
+    @Test
+    void ranksByBm25ThenMostRecentlyIndexed() {
+        index.put(1L, 1L, "piscine garage cave cellier grenier");
+        index.put(2L, 1L, "piscine piscine jardin");
+        index.put(3L, 1L, "terrasse jardin");
+        index.put(4L, 1L, "terrasse jardin");
+
+        assertEquals(List.of(2L, 1L), index.search("piscine", 10));
+        assertEquals(List.of(2L), index.search("piscine", 1));
+        // Même score : le document indexé en dernier passe devant
+        assertEquals(List.of(4L, 3L), index.search("terrasse", 10));
+    }
+
+    @Test
+    void replacesPreviousVersion() {
+        assertTrue(index.put(1L, 1L, "maison"));
+        assertTrue(index.put(1L, 2L, "appartement"));
+
+        assertEquals(List.of(), index.search("maison", 10));
+        assertEquals(List.of(1L), index.search("appartement", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void ignoresStaleVersion() {
+        assertTrue(index.put(1L, 5L, "maison"));
+        assertFalse(index.put(1L, 3L, "appartement"));
+
+        assertEquals(List.of(1L), index.search("maison", 10));
+        assertEquals(List.of(), index.search("appartement", 10));
+        assertEquals(1, index.size());
+
+        // Une version égale remplace le document
+        assertTrue(index.put(1L, 5L, "appartement"));
+        assertEquals(List.of(1L), index.search("appartement", 10));
+    }
+
+    @Test
+    void purgesReplacedVersionsOnceTheyAreTheMajority() {
+        int documents = 2000;
+        for (long key = 0; key < documents; key++) {
+            index.put(key, 1L, "villa");
+        }
+        for (long key = 0; key < documents; key++) {
+            index.put(key, 2L, "chalet");
+        }
+        // Autant de versions remplacées que de documents : pas encore majoritaires, toujours dans les postings
+        assertEquals(2, index.termCount());
+        long bytesBeforePurge = index.getPostingBytes();
+
+        index.put(0L, 3L, "chalet");
+
+        assertEquals(1, index.termCount());
+        assertTrue(index.getPostingBytes() < bytesBeforePurge);
+        assertEquals(documents, index.size());
+        assertEquals(List.of(), index.search("villa", 10));
+        assertEquals(documents, new HashSet<>(index.search("chalet", 2 * documents)).size());
+        // Les versions survivent à la renumérotation
+        assertFalse(index.put(0L, 2L, "villa"));
+        assertTrue(index.put(1L, 2L, "villa"));
+        assertEquals(List.of(1L), index.search("villa", 10));
+    }
+
+    @Test
+    void matchesBruteForceAfterRandomUpdates() {
+        String[] words = {"maison", "piscine", "jardin", "garage", "studio", "centre", "plage", "calme"};
+        Map<Long, String> texts = new HashMap<>();
+        Map<Long, Long> versions = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(500);
+            long version = random.nextInt(100);
+            StringBuilder text = new StringBuilder();
+            for (int j = random.nextInt(6); j >= 0; j--) {
+                text.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            boolean expected = version >= versions.getOrDefault(key, Long.MIN_VALUE);
+            assertEquals(expected, index.put(key, version, text.toString()));
+            if (expected) {
+                texts.put(key, text.toString());
+                versions.put(key, version);
+            }
+        }
+
+        assertEquals(texts.size(), index.size());
+        for (String word : words) {
+            Set<Long> expected = new HashSet<>();
+            texts.forEach((key, text) -> {
+                if (FrenchTextAnalyzer.tokenize(text).contains(word)) {
+                    expected.add(key);
+                }
+            });
+            List<Long> found = index.search(word, texts.size());
+            assertEquals(expected.size(), found.size(), word);
+            assertEquals(expected, new HashSet<>(found), word);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.rental.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+class JpegMetadataTest {
+
+    @Test
+    void removesExifXmpIptcAndComments() throws IOException {
+        byte[] jpeg = withSegments(jpeg(),
+                exif(6, "GPS 48.8584N 2.2945E"),
+                segment(0xFFE1, "http://ns.adobe.com/xap/1.0/\0<x:xmpmeta>Paris</x:xmpmeta>"),
+                segment(0xFFED, "Photoshop 3.0\0IPTC auteur"),
+                segment(0xFFFE, "commentaire"));
+
+        byte[] stripped = strip(jpeg);
+
+        String text = new String(stripped, StandardCharsets.ISO_8859_1);
+        assertFalse(text.contains("GPS"));
+        assertFalse(text.contains("xmpmeta"));
+        assertFalse(text.contains("IPTC"));
+        assertFalse(text.contains("commentaire"));
+        assertTrue(stripped.length < jpeg.length);
+    }
+
+    @Test
+    void keepsOrientationAndImageData() throws IOException {
+        byte[] jpeg = jpeg();
+        byte[] stripped = strip(withSegments(jpeg, exif(6, "GPS 48.8584N 2.2945E")));
+
+        assertEquals(6, orientation(stripped));
+        // Données compressées recopiées à l'octet près
+        assertArrayEquals(Arrays.copyOfRange(jpeg, sos(jpeg), jpeg.length),
+                Arrays.copyOfRange(stripped, sos(stripped), stripped.length));
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(stripped));
+        assertNotNull(decoded);
+        assertEquals(40, decoded.getWidth());
+        assertEquals(30, decoded.getHeight());
+    }
+
+    @Test
+    void dropsExifWithDefaultOrientation() throws IOException {
+        byte[] stripped = strip(withSegments(jpeg(), exif(1, "GPS 48.8584N 2.2945E")));
+
+        assertEquals(1, orientation(stripped));
+        assertEquals(-1, indexOf(stripped, "Exif"));
+    }
+
+    @Test
+    void keepsDisplaySegments() throws IOException {
+        byte[] jpeg = withSegments(jpeg(), segment(0xFFE2, "ICC_PROFILE\0profil"), segment(0xFFEE, "Adobe\0\0"));
+
+        assertArrayEquals(jpeg, strip(jpeg));
+    }
+
+    @Test
+    void copiesOtherFilesUnchanged() throws IOException {
+        byte[] png = "\u0089PNG\r\n\u001a\n contenu".getBytes(StandardCharsets.ISO_8859_1);
+
+        assertArrayEquals(png, strip(png));
+        assertArrayEquals(new byte[0], strip(new byte[0]));
+        assertArrayEquals(new byte[] {(byte) 0xFF}, strip(new byte[] {(byte) 0xFF}));
+    }
+
+    private static byte[] strip(byte[] data) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JpegMetadata.strip(new ByteArrayInputStream(data), output);
+        return output.toByteArray();
+    }
+
+    private static int orientation(byte[] jpeg) throws IOException {
+        Path file = Files.createTempFile("jpeg-metadata-", ".jpg");
+        try {
+            Files.write(file, jpeg);
+            return ExifOrientation.read(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static byte[] jpeg() throws IOException {
+        BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x * 6) << 16 | (y * 8) << 8 | 0x40);
+            }
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", output);
+        return output.toByteArray();
+    }
+
+    // Segments insérés juste après SOI, avant ceux écrits par ImageIO
+    private static byte[] withSegments(byte[] jpeg, byte[]... segments) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(jpeg, 0, 2);
+        for (byte[] segment : segments) {
+            output.writeBytes(segment);
+        }
+        output.write(jpeg, 2, jpeg.length - 2);
+        return output.toByteArray();
+    }
+
+    // EXIF petit-boutiste : l'orientation, puis un texte après l'IFD0
+    private static byte[] exif(int orientation, String text) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        payload.writeBytes("Exif\0\0II".getBytes(StandardCharsets.ISO_8859_1));
+        payload.writeBytes(new byte[] {42, 0, 8, 0, 0, 0, 1, 0, 0x12, 0x01, 3, 0, 1, 0, 0, 0,
+                (byte) orientation, 0, 0, 0, 0, 0, 0, 0});
+        payload.writeBytes(text.getBytes(StandardCharsets.ISO_8859_1));
+        return segment(0xFFE1, payload.toByteArray());
+    }
+
+    private static byte[] segment(int marker, String payload) {
+        return segment(marker, payload.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static byte[] segment(int marker, byte[] payload) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(marker >> 8);
+        output.write(marker);
+        output.write((payload.length + 2) >> 8);
+        output.write(payload.length + 2);
+        output.writeBytes(payload);
+        return output.toByteArray();
+    }
+
+    private static int sos(byte[] jpeg) {
+        for (int i = 0; i + 1 < jpeg.length; i++) {
+            if ((jpeg[i] & 0xFF) == 0xFF && (jpeg[i + 1] & 0xFF) == 0xDA) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(byte[] data, String text) {
+        return new String(data, StandardCharsets.ISO_8859_1).indexOf(text);
+    }
+}
@@ -0,0 +1,102 @@
+package com.rental.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Compare le matcher à la chaîne de {@link String#startsWith(String)} qu'il remplace dans le filtre JWT.
+ */
+class PathPrefixMatcherTest {
+
+    private static final String[] SWAGGER_PREFIXES = {
+            "/swagger-ui",
+            "/v3/api-docs",
+            "/swagger-resources",
+            "/webjars/",
+            "/configuration/ui",
+            "/configuration/security"
+    };
+
+    private final PathPrefixMatcher matcher = new PathPrefixMatcher(SWAGGER_PREFIXES);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/swagger-ui",
+            "/swagger-ui/index.html",
+            "/swagger-ui.html",
+            "/swagger",
+            "/swagger-resources/configuration/ui",
+            "/v3/api-docs",
+            "/v3/api-docs/swagger-config",
+            "/v3/api",
+            "/v3",
+            "/webjars",
+            "/webjars/",
+            "/webjars/swagger-ui/bundle.js",
+            "/configuration/ui",
+            "/configuration/security",
+            "/configuration/",
+            "/configuration/other",
+            "/api/rentals",
+            "/api/auth/login",
+            "/",
+            "",
+            "s",
+            "swagger-ui",
+            "//swagger-ui",
+            "/Swagger-ui",
+            "/é",
+            "/sé",
+            "/\ud83d\ude00"
+    })
+    void matchesOldStartsWithChain(String path) {
+        assertEquals(oldChain(path), matcher.matches(path), () -> "Chemin : \"" + path + "\"");
+    }
+
+    @Test
+    void matchesOldStartsWithChainOnRandomPaths() {
+        String alphabet = "/swagerui-v3pdcnftyé";
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder path = new StringBuilder(random.nextBoolean() ? "/" : "");
+            int length = random.nextInt(24);
+            for (int j = 0; j < length; j++) {
+                path.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            // Un chemin aléatoire ne tombe presque jamais sur un préfixe : on en complète une partie
+            if (random.nextInt(4) == 0) {
+                path.insert(0, SWAGGER_PREFIXES[random.nextInt(SWAGGER_PREFIXES.length)]
+                        .substring(0, 1 + random.nextInt(8)));
+            }
+            String candidate = path.toString();
+            assertEquals(oldChain(candidate), matcher.matches(candidate), () -> "Chemin : \"" + candidate + "\"");
+        }
+    }
+
+    @Test
+    void rejectsNullPath() {
+        assertFalse(matcher.matches(null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "/", "swagger-ui", "/é"})
+    void rejectsInvalidPrefix(String prefix) {
+        assertThrows(IllegalArgumentException.class, () -> new PathPrefixMatcher(prefix));
+    }
+
+    private static boolean oldChain(String path) {
+        return path.startsWith("/swagger-ui") ||
+                path.startsWith("/v3/api-docs") ||
+                path.startsWith("/swagger-resources") ||
+                path.startsWith("/webjars/") ||
+                path.startsWith("/configuration/ui") ||
+                path.startsWith("/configuration/security");
+    }
+}
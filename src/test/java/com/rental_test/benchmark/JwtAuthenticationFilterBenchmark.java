@@ -0,0 +1,120 @@
+package com.rental_test.benchmark;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.rental.configuration.JwtAuthenticationEntryPoint;
+import com.rental.configuration.JwtAuthenticationFilter;
+import com.rental.entity.Role;
+import com.rental.security.JwtKeyRing;
+import com.rental.security.TokenEpochRegistry;
+import com.rental.security.UserDetailsLoader;
+import com.rental.service.JwtService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/**
+ * Coût complet de {@link JwtAuthenticationFilter} par requête (ns/op, et octets alloués par
+ * opération via le profileur GC : gc.alloc.rate.norm) pour un token valide, un en-tête mal formé
+ * et une requête sans en-tête Authorization.
+ * Le token valide est servi par le cache des tokens vérifiés, comme en régime établi.
+ * <p>
+ * Lancement : exécuter {@link #main(String[])} depuis le classpath de test.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest validRequest;
+    private MockHttpServletRequest malformedRequest;
+    private MockHttpServletRequest missingHeaderRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        String secret = Base64.getEncoder().encodeToString(new byte[32]);
+        JwtService jwtService = new JwtService(new JwtKeyRing(secret, "", true), TimeUnit.DAYS.toMillis(14),
+                Duration.ofMinutes(15), 10_000, meterRegistry);
+        // Les dépôts ne sont pas sollicités : le token porte l'identité et l'époque par défaut
+        UserDetailsLoader userDetailsLoader = new UserDetailsLoader(null, 10_000,
+                Duration.ofMinutes(10), meterRegistry);
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsLoader,
+                new TokenEpochRegistry(null, Duration.ofSeconds(30), meterRegistry), new JwtAuthenticationEntryPoint());
+
+        String token = jwtService.generateAccessToken(42L, "user@example.com", Role.USER, 0);
+        validRequest = request("Bearer " + token);
+        malformedRequest = request("Bearer " + token.replace('.', '!'));
+        missingHeaderRequest = request(null);
+        response = new MockHttpServletResponse();
+    }
+
+    // Chaque requête réelle démarre avec un contexte de sécurité vide : le nettoyage fait partie de la mesure
+    @Benchmark
+    public MockHttpServletResponse validToken() throws ServletException, IOException {
+        filter.doFilter(validRequest, response, NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse malformedToken() throws ServletException, IOException {
+        filter.doFilter(malformedRequest, response, NO_OP_CHAIN);
+        // sendError valide la réponse : elle est réarmée pour l'opération suivante
+        response.setCommitted(false);
+        response.reset();
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse missingHeader() throws ServletException, IOException {
+        filter.doFilter(missingHeaderRequest, response, NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/rentals");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        return request;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
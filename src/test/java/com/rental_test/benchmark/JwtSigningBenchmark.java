@@ -0,0 +1,178 @@
+package com.rental_test.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Coût de signature et de vérification d'un token d'accès (sujet, uid, role, typ, ep, iat, exp)
+ * en HS256, ES256 et Ed25519, à deux niveaux :
+ * <ul>
+ * <li>token complet avec jjwt (construction, encodage, analyse des claims), pour HS256 et ES256 ;</li>
+ * <li>primitive seule du JDK sur la même entrée de signature (en-tête et charge utile encodés), pour
+ * les trois algorithmes (méthodes {@code *Primitive}).</li>
+ * </ul>
+ * jjwt 0.11 ne gère pas EdDSA : Ed25519 n'est mesuré qu'au niveau de la primitive, borne basse du coût
+ * d'un token complet. Seuls les résultats d'un même niveau sont comparables.
+ * <p>
+ * Lancement : exécuter {@link #main(String[])} depuis le classpath de test.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    private Key hmacKey;
+    private KeyPair ecKeyPair;
+    private KeyPair edKeyPair;
+
+    private JwtParser hmacParser;
+    private JwtParser ecParser;
+
+    private String hmacToken;
+    private String ecToken;
+    private byte[] signingInput;
+    private byte[] hmacSignature;
+    private byte[] ecSignature;
+    private byte[] edSignature;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        hmacKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        ecKeyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        edKeyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+
+        hmacParser = Jwts.parserBuilder().setSigningKey(hmacKey).build();
+        ecParser = Jwts.parserBuilder().setSigningKey(ecKeyPair.getPublic()).build();
+
+        hmacToken = signHs256();
+        ecToken = signEs256();
+
+        // Même entrée pour les trois primitives : en-tête et charge utile du token HS256
+        signingInput = hmacToken.substring(0, hmacToken.lastIndexOf('.')).getBytes(StandardCharsets.US_ASCII);
+        hmacSignature = signHs256Primitive();
+        ecSignature = signEs256Primitive();
+        edSignature = signEd25519Primitive();
+    }
+
+    @Benchmark
+    public String signHs256() {
+        return accessToken().signWith(hmacKey, SignatureAlgorithm.HS256).compact();
+    }
+
+    @Benchmark
+    public String signEs256() {
+        return accessToken()
+                .setHeaderParam("kid", "benchmark")
+                .signWith(ecKeyPair.getPrivate(), SignatureAlgorithm.ES256)
+                .compact();
+    }
+
+    @Benchmark
+    public byte[] signHs256Primitive() throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(hmacKey);
+        return mac.doFinal(signingInput);
+    }
+
+    // Format R || S des signatures JWS ES256
+    @Benchmark
+    public byte[] signEs256Primitive() throws GeneralSecurityException {
+        Signature signature = Signature.getInstance("SHA256withECDSAinP1363Format");
+        signature.initSign(ecKeyPair.getPrivate());
+        signature.update(signingInput);
+        return signature.sign();
+    }
+
+    @Benchmark
+    public byte[] signEd25519Primitive() throws GeneralSecurityException {
+        Signature signature = Signature.getInstance("Ed25519");
+        signature.initSign(edKeyPair.getPrivate());
+        signature.update(signingInput);
+        return signature.sign();
+    }
+
+    @Benchmark
+    public Claims verifyHs256() {
+        return hmacParser.parseClaimsJws(hmacToken).getBody();
+    }
+
+    @Benchmark
+    public Claims verifyEs256() {
+        return ecParser.parseClaimsJws(ecToken).getBody();
+    }
+
+    @Benchmark
+    public boolean verifyHs256Primitive() throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(hmacKey);
+        return MessageDigest.isEqual(mac.doFinal(signingInput), hmacSignature);
+    }
+
+    @Benchmark
+    public boolean verifyEs256Primitive() throws GeneralSecurityException {
+        Signature signature = Signature.getInstance("SHA256withECDSAinP1363Format");
+        signature.initVerify(ecKeyPair.getPublic());
+        signature.update(signingInput);
+        return signature.verify(ecSignature);
+    }
+
+    @Benchmark
+    public boolean verifyEd25519Primitive() throws GeneralSecurityException {
+        Signature signature = Signature.getInstance("Ed25519");
+        signature.initVerify(edKeyPair.getPublic());
+        signature.update(signingInput);
+        return signature.verify(edSignature);
+    }
+
+    private static JwtBuilder accessToken() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject("user@example.com")
+                .claim("uid", 42L)
+                .claim("role", "USER")
+                .claim("typ", "ACCESS")
+                .claim("ep", 0)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TimeUnit.MINUTES.toMillis(15)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtSigningBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}